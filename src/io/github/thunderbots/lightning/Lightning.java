@@ -18,7 +18,9 @@ package io.github.thunderbots.lightning;
 
 import io.github.thunderbots.lightning.control.Joystick;
 import io.github.thunderbots.lightning.control.JoystickMonitor;
+import io.github.thunderbots.lightning.control.JoystickRegistry;
 import io.github.thunderbots.lightning.hardware.CRServo;
+import io.github.thunderbots.lightning.hardware.HardwareCycle;
 import io.github.thunderbots.lightning.hardware.Motor;
 import io.github.thunderbots.lightning.hardware.Servo;
 import io.github.thunderbots.lightning.opmode.LightningOpMode;
@@ -69,18 +71,19 @@ public final class Lightning {
 	private static TaskScheduler taskScheduler;
 
 	/**
-	 * The joystick monitor for joystick 1.
+	 * The hardware cycle that batches access to every motor and servo that is created
+	 * through {@code Lightning}.
 	 *
-	 * @see io.github.thunderbots.lightning.control.JoystickMonitor
+	 * @see io.github.thunderbots.lightning.hardware.HardwareCycle
 	 */
-	private static JoystickMonitor monitor1;
+	private static HardwareCycle hardwareCycle;
 
 	/**
-	 * The joystick monitor for joystick 1.
+	 * The registry of the gamepads of the op mode, and their monitors.
 	 *
-	 * @see io.github.thunderbots.lightning.control.JoystickMonitor
+	 * @see io.github.thunderbots.lightning.control.JoystickRegistry
 	 */
-	private static JoystickMonitor monitor2;
+	private static JoystickRegistry joysticks;
 
 	/**
 	 * {@code Lightning} should not be instantiable.
@@ -89,21 +92,61 @@ public final class Lightning {
 
 	}
 
+	/**
+	 * The longest time to wait for the task scheduler of a previous op mode to stop, in
+	 * milliseconds.
+	 */
+	private static final long SCHEDULER_JOIN_TIMEOUT = 1000;
+
 	/**
 	 * Initializes the static members in {@code Lightning} from the given
-	 * {@code LightningOpMode}.
+	 * {@code LightningOpMode}. If {@code Lightning} is still initialized from a previous
+	 * op mode, the previous op mode is shut down first.
 	 *
 	 * @param opmode the op mode to get information from.
 	 * @see #opmode
+	 * @see #shutdownLightning()
 	 */
 	public static void initializeLightning(LightningOpMode opmode) {
+		Lightning.shutdownLightning();
 		Lightning.opmode = opmode;
 		Lightning.robotHardware = opmode.hardwareMap;
 		Lightning.sensorMaps = Lightning.getSensorMaps(Lightning.robotHardware);
 		Lightning.taskScheduler = new TaskScheduler();
-		Lightning.monitor1 = new JoystickMonitor(1);
-		Lightning.monitor2 = new JoystickMonitor(2);
+		Lightning.hardwareCycle = new HardwareCycle();
+		Lightning.taskScheduler.addTickListener(Lightning.hardwareCycle);
+		Lightning.joysticks = new JoystickRegistry();
+		Lightning.joysticks.register(opmode.gamepad1);
+		Lightning.joysticks.register(opmode.gamepad2);
+		Lightning.taskScheduler.registerTask(Lightning.joysticks.getPollingTask());
 		Telemetry.setTelemetry(opmode.telemetry);
+		Lightning.taskScheduler.start();
+	}
+
+	/**
+	 * Stops the master task scheduler, and waits a short time for it to finish its current
+	 * cycle. This should be called when the op mode that {@code Lightning} was initialized
+	 * with ends, however it ends. Calling this method when {@code Lightning} has already
+	 * been shut down has no effect.
+	 *
+	 * @return {@code true} if the task scheduler stopped, or {@code false} if it was still
+	 * running when the wait ended.
+	 */
+	public static boolean shutdownLightning() {
+		TaskScheduler scheduler = Lightning.taskScheduler;
+		if (scheduler == null) {
+			return true;
+		}
+		scheduler.stop();
+		boolean stopped = scheduler.join(Lightning.SCHEDULER_JOIN_TIMEOUT);
+		Lightning.hardwareCycle.setEnabled(false);
+		if (stopped) {
+			Lightning.hardwareCycle.flush();
+		}
+		Lightning.joysticks.shutdown();
+		Lightning.taskScheduler = null;
+		Lightning.joysticks = null;
+		return stopped;
 	}
 
 	/**
@@ -117,42 +160,72 @@ public final class Lightning {
 	}
 
 	/**
-	 * Gets a reference to the given joystick. Currently, only {@code joystick1} and
-	 * {@code joystick2} are supported.
+	 * Gets the most recent snapshot of the given joystick. The snapshots are captured once
+	 * per cycle of the task scheduler, so every call in the same cycle returns the same
+	 * snapshot. The gamepads of the op mode have IDs 1 and 2.
 	 *
-	 * @param joystick the ID of the joystick to return; can only be 1 or 2.
+	 * @param joystick the ID of the joystick to return.
 	 * @return the specified joystick.
-	 * @throws IllegalArgumentException if the given joystick ID is not 1 or 2.
+	 * @throws IllegalArgumentException if there is no joystick with the given ID.
 	 */
 	public static Joystick getJoystick(int joystick) {
-		switch (joystick) {
-			case 1:
-				return new Joystick(Lightning.opmode.gamepad1);
-			case 2:
-				return new Joystick(Lightning.opmode.gamepad2);
-			default:
-				throw new IllegalArgumentException();
-		}
+		return Lightning.joysticks.getJoystick(joystick);
 	}
 
 	/**
-	 * Gets a reference to the joystick monitor for the given joystick. Currently, only
-	 * {@code joystick1} and {@code joystick2} are supported.
+	 * Gets a reference to the joystick monitor for the given joystick. The gamepads of the
+	 * op mode have IDs 1 and 2.
 	 *
-	 * @param joystick the ID of the joystick to get the monitor for; can only be 1 or 2.
+	 * @param joystick the ID of the joystick to get the monitor for.
 	 * @return the joystick monitor for the given joystick.
-	 * @see #monitor1
-	 * @see #monitor2
+	 * @throws IllegalArgumentException if there is no joystick with the given ID.
 	 */
 	public static JoystickMonitor getJoystickMonitor(int joystick) {
-		switch (joystick) {
-			case 1:
-				return Lightning.monitor1;
-			case 2:
-				return Lightning.monitor2;
-			default:
-				return null;
-		}
+		return Lightning.joysticks.getMonitor(joystick);
+	}
+
+	/**
+	 * Gets a reference to the registry of all the joysticks of the op mode. Additional
+	 * gamepads can be registered with it.
+	 *
+	 * @return the joystick registry.
+	 */
+	public static JoystickRegistry getJoystickRegistry() {
+		return Lightning.joysticks;
+	}
+
+	/**
+	 * Calls the handlers of every joystick event that is waiting to be handled on the op
+	 * mode thread. This must only be called by the op mode thread.
+	 *
+	 * @return the number of events that were handled.
+	 * @see io.github.thunderbots.lightning.control.DispatchMode#OP_MODE
+	 */
+	public static int dispatchJoystickEvents() {
+		return Lightning.joysticks.dispatchEvents();
+	}
+
+	/**
+	 * Sets whether access to the motors and servos of the robot should be batched into the
+	 * cycles of the task scheduler. When this is enabled, motor powers and servo positions
+	 * are written together at the end of each cycle, and encoders are read once at the
+	 * start of each cycle. It is disabled by default.
+	 *
+	 * @param enabled {@code true} if hardware access should be batched.
+	 * @see io.github.thunderbots.lightning.hardware.HardwareCycle
+	 */
+	public static void setHardwareCycleEnabled(boolean enabled) {
+		Lightning.hardwareCycle.setEnabled(enabled);
+	}
+
+	/**
+	 * Gets a reference to the hardware cycle that batches access to the motors and servos
+	 * created through {@code Lightning}.
+	 *
+	 * @return the hardware cycle.
+	 */
+	public static HardwareCycle getHardwareCycle() {
+		return Lightning.hardwareCycle;
 	}
 
 	/**
@@ -177,10 +250,12 @@ public final class Lightning {
 	 */
 	public static Motor getMotor(String name) {
 		try {
-			return new Motor(Lightning.robotHardware.dcMotor.get(name));
+			Motor motor = new Motor(Lightning.robotHardware.dcMotor.get(name));
+			Lightning.hardwareCycle.register(motor);
+			return motor;
 		} catch (IllegalArgumentException e) {
 			// TODO: find out which specific type of exception we should expect here.
-			return new CRServo(new Servo(Lightning.robotHardware.servo.get(name)));
+			return new CRServo(Lightning.getServo(name));
 		}
 	}
 
@@ -191,7 +266,9 @@ public final class Lightning {
 	 * @return the servo with the given name.
 	 */
 	public static Servo getServo(String name) {
-		return new Servo(Lightning.robotHardware.servo.get(name));
+		Servo servo = new Servo(Lightning.robotHardware.servo.get(name));
+		Lightning.hardwareCycle.register(servo);
+		return servo;
 	}
 
 	/**
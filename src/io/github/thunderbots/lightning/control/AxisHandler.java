@@ -0,0 +1,96 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control;
+
+import io.github.thunderbots.lightning.control.ButtonHandler.PressType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@code AxisHandler} is an annotation that should be applied to all methods that handle
+ * changes of an analog joystick axis. It can be used in one of two ways.
+ * <p>
+ * If no {@link #threshold()} is given, the method is called whenever the axis has moved by
+ * at least {@link #minDelta()} since the last time the method was called, and whenever the
+ * axis reaches its rest position or either end of its range. The method must take a
+ * single {@code double} parameter, which receives the new value of the axis.
+ * <p>
+ * If a threshold is given, the axis is treated like a button. It becomes 'pressed' when it
+ * reaches the threshold, and only becomes 'released' when it has moved back past the
+ * threshold by more than the {@link #hysteresis()}, so noise around the threshold does not
+ * cause repeated events. A negative threshold is reached by moving the axis below it. The
+ * method is called on the press or release, as given by {@link #type()}, and may either
+ * take no parameters or a single {@code double} parameter.
+ *
+ * @author Zach Ohara
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface AxisHandler {
+
+	/**
+	 * Gets the axis that should be responded to.
+	 *
+	 * @return the axis that should be responded to.
+	 */
+	JoystickAxis axis();
+
+	/**
+	 * Gets the joystick that the axis should come from.
+	 *
+	 * @return the joystick that the axis should come from.
+	 */
+	int joystick() default 1;
+
+	/**
+	 * Gets the smallest change in the axis that should be reported, if no threshold is
+	 * given.
+	 *
+	 * @return the smallest change that should be reported.
+	 */
+	double minDelta() default 0.05;
+
+	/**
+	 * Gets the value at which the axis should be considered pressed, or {@code NaN} if the
+	 * method should be called for every meaningful change instead.
+	 *
+	 * @return the press threshold of the axis.
+	 */
+	double threshold() default Double.NaN;
+
+	/**
+	 * Gets the distance that the axis must move back past the threshold before it is
+	 * considered released.
+	 *
+	 * @return the hysteresis of the threshold.
+	 */
+	double hysteresis() default 0.05;
+
+	/**
+	 * Gets the type of threshold crossing that the method should be called in response
+	 * to. This is ignored if no threshold is given.
+	 *
+	 * @return the type of crossing that the method should be called in response to.
+	 */
+	PressType type() default PressType.PRESS;
+
+}
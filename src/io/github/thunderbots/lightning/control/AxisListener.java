@@ -0,0 +1,37 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control;
+
+/**
+ * An {@code AxisListener} is notified when an analog axis of a joystick changes by a
+ * meaningful amount. It can be registered with
+ * {@link JoystickMonitor#registerAxisListener(JoystickAxis, double, AxisListener)} as a
+ * reflection-free alternative to an {@link AxisHandler} method.
+ *
+ * @author Zach Ohara
+ */
+public interface AxisListener {
+
+	/**
+	 * Called when the given axis has changed.
+	 *
+	 * @param axis the axis that changed.
+	 * @param value the new value of the axis.
+	 */
+	public void axisChanged(JoystickAxis axis, double value);
+
+}
@@ -0,0 +1,88 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control;
+
+import io.github.thunderbots.lightning.control.ButtonHandler.PressType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@code ButtonCombo} is an annotation that should be applied to methods that handle a
+ * combination of joystick buttons that are held down together. The combination is treated
+ * as a single button, which is pressed when the last of its buttons is pressed while the
+ * others are held down, and released when any of its buttons is released. Every
+ * {@link PressType} can be used with a combination.
+ * <p>
+ * Handlers of the single buttons in the combination are still called as normal.
+ *
+ * @author Zach Ohara
+ * @see ButtonHandler
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface ButtonCombo {
+
+	/**
+	 * Gets the buttons that must be held down together.
+	 *
+	 * @return the buttons of the combination.
+	 */
+	JoystickButton[] buttons();
+
+	/**
+	 * Gets the joystick that the buttons should come from.
+	 *
+	 * @return the joystick that the buttons should come from.
+	 */
+	int joystick() default 1;
+
+	/**
+	 * Gets the type of press that the method should be called in response to.
+	 *
+	 * @return the type of press that the method should be called in response to.
+	 */
+	PressType type() default PressType.PRESS;
+
+	/**
+	 * Gets the time that the combination must be held down for a {@code HOLD}, or before a
+	 * {@code REPEAT} starts repeating, in milliseconds.
+	 *
+	 * @return the hold time, in milliseconds.
+	 */
+	long holdTime() default ButtonHandler.DEFAULT_HOLD_TIME;
+
+	/**
+	 * Gets the time between the repeats of a {@code REPEAT}, in milliseconds.
+	 *
+	 * @return the repeat interval, in milliseconds.
+	 */
+	long repeatInterval() default ButtonHandler.DEFAULT_REPEAT_INTERVAL;
+
+	/**
+	 * Gets the longest time between the two presses of a {@code DOUBLE_TAP}, in
+	 * milliseconds.
+	 *
+	 * @return the double-tap time, in milliseconds.
+	 */
+	long doubleTapTime() default ButtonHandler.DEFAULT_DOUBLE_TAP_TIME;
+
+}
@@ -26,7 +26,11 @@ import java.lang.annotation.Target;
  * {@code ButtonHandler} is an annotation that should be applied to all methods that handle
  * joystick button presses. It specifies the button that should be responded to, the
  * joystick that the button should come from, and if the method should be called on the
- * press or release of the button.
+ * press or release of the button, or on one of the timed kinds of press.
+ * <p>
+ * The timing of the timed press types can be changed with {@link #holdTime()},
+ * {@link #repeatInterval()} and {@link #doubleTapTime()}. Handlers for combinations of
+ * buttons can be declared with {@link ButtonCombo}.
  *
  * @author Zach Ohara
  */
@@ -37,13 +41,55 @@ public @interface ButtonHandler {
 
 	/**
 	 * The {@code PressType} enumeration is used to specify if a method should respond to a
-	 * button being pressed or released.
+	 * button being pressed or released, or to one of the timed kinds of press.
 	 */
 	public enum PressType {
+
+		/**
+		 * The button has been pressed.
+		 */
 		PRESS,
+
+		/**
+		 * The button has been released.
+		 */
 		RELEASE,
+
+		/**
+		 * The button has been held down for the hold time. This happens at most once for
+		 * each press.
+		 */
+		HOLD,
+
+		/**
+		 * The button has been pressed, or is still held down. This happens once when the
+		 * button is pressed, again when it has been held for the hold time, and then once
+		 * every repeat interval until it is released.
+		 */
+		REPEAT,
+
+		/**
+		 * The button has been pressed for the second time within the double-tap time. A
+		 * third press starts a new double tap.
+		 */
+		DOUBLE_TAP,
 	}
 
+	/**
+	 * The default hold time, in milliseconds.
+	 */
+	long DEFAULT_HOLD_TIME = 500;
+
+	/**
+	 * The default repeat interval, in milliseconds.
+	 */
+	long DEFAULT_REPEAT_INTERVAL = 100;
+
+	/**
+	 * The default double-tap time, in milliseconds.
+	 */
+	long DEFAULT_DOUBLE_TAP_TIME = 300;
+
 	/**
 	 * Gets the button that should be responded to.
 	 *
@@ -65,4 +111,27 @@ public @interface ButtonHandler {
 	 */
 	PressType type() default PressType.PRESS;
 
+	/**
+	 * Gets the time that the button must be held down for a {@code HOLD}, or before a
+	 * {@code REPEAT} starts repeating, in milliseconds.
+	 *
+	 * @return the hold time, in milliseconds.
+	 */
+	long holdTime() default ButtonHandler.DEFAULT_HOLD_TIME;
+
+	/**
+	 * Gets the time between the repeats of a {@code REPEAT}, in milliseconds.
+	 *
+	 * @return the repeat interval, in milliseconds.
+	 */
+	long repeatInterval() default ButtonHandler.DEFAULT_REPEAT_INTERVAL;
+
+	/**
+	 * Gets the longest time between the two presses of a {@code DOUBLE_TAP}, in
+	 * milliseconds.
+	 *
+	 * @return the double-tap time, in milliseconds.
+	 */
+	long doubleTapTime() default ButtonHandler.DEFAULT_DOUBLE_TAP_TIME;
+
 }
@@ -0,0 +1,54 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control;
+
+/**
+ * The {@code DispatchMode} enumeration specifies which thread the handlers of a listener
+ * registered with a {@code JoystickMonitor} are called on.
+ *
+ * @author Zach Ohara
+ * @see JoystickMonitor#registerJoystickListener(JoystickListener, DispatchMode)
+ */
+public enum DispatchMode {
+
+	/**
+	 * Handlers are called on the task scheduler thread, as soon as the input changes. This
+	 * is the default, and has the lowest latency, but a handler that takes a long time
+	 * delays every other task in the cycle.
+	 */
+	INLINE,
+
+	/**
+	 * Events are queued, and the handlers are called on the op mode thread when it calls
+	 * {@link JoystickMonitor#dispatchEvents()}. A {@code TeleOp} does this once on every
+	 * pass of its main loop.
+	 */
+	OP_MODE,
+
+	/**
+	 * Events are queued, and the handlers are called on a dedicated handler thread that
+	 * belongs to the monitor. A slow handler only delays the other handlers that use this
+	 * mode.
+	 */
+	HANDLER_THREAD;
+
+	@Override
+	public String toString() {
+		return this.name();
+	}
+
+}
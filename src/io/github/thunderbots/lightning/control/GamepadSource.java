@@ -0,0 +1,79 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * A {@code GamepadSource} connects one physical gamepad to the rest of the SDK. It owns
+ * the {@code Gamepad} object of the op mode, and the latest {@link Joystick} snapshot that
+ * was captured from it.
+ *
+ * @author Zach Ohara
+ * @see JoystickRegistry
+ */
+public class GamepadSource {
+
+	/**
+	 * The gamepad that snapshots are captured from.
+	 */
+	private final Gamepad gamepad;
+
+	/**
+	 * The most recent snapshot of the gamepad.
+	 */
+	private volatile Joystick joystick;
+
+	/**
+	 * Constructs a new {@code GamepadSource} for the given gamepad, and captures the first
+	 * snapshot of it.
+	 *
+	 * @param gamepad the gamepad that snapshots should be captured from.
+	 */
+	public GamepadSource(Gamepad gamepad) {
+		this.gamepad = gamepad;
+		Joystick.configureGamepad(gamepad);
+		this.update();
+	}
+
+	/**
+	 * Captures a new snapshot of the gamepad. If nothing on the gamepad has changed, the
+	 * previous snapshot is kept.
+	 */
+	public void update() {
+		this.joystick = Joystick.capture(this.gamepad, this.joystick);
+	}
+
+	/**
+	 * Gets the most recent snapshot of the gamepad.
+	 *
+	 * @return the most recent snapshot of the gamepad.
+	 */
+	public Joystick getJoystick() {
+		return this.joystick;
+	}
+
+	/**
+	 * Gets the gamepad that snapshots are captured from.
+	 *
+	 * @return the gamepad of this source.
+	 */
+	public Gamepad getGamepad() {
+		return this.gamepad;
+	}
+
+}
@@ -0,0 +1,183 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@code InputEventQueue} is a bounded queue of input events that are waiting to be
+ * handled, passed from the thread that runs a {@code JoystickMonitor} to the thread that
+ * calls the handlers.
+ * <p>
+ * The queue is a ring of event objects that are all created when the queue is created, so
+ * publishing an event never allocates. There must be exactly one thread that offers
+ * events and exactly one thread that drains them. Under that rule no locks are needed:
+ * each side only writes its own position in the ring, and publishes it with an ordered
+ * write that the other side reads. When the ring is full, new events are dropped, and
+ * counted, instead of blocking the monitor.
+ *
+ * @author Zach Ohara
+ */
+final class InputEventQueue {
+
+	/**
+	 * The number of events that the queue can hold. This must be a power of two.
+	 */
+	static final int CAPACITY = 64;
+
+	/**
+	 * The events in the ring. The event at a position is found by masking the position
+	 * with {@code CAPACITY - 1}.
+	 */
+	private final InputEvent[] events;
+
+	/**
+	 * The position of the next event to be drained. This is only written by the draining
+	 * thread.
+	 */
+	private final AtomicLong head;
+
+	/**
+	 * The position that the next event will be offered at. This is only written by the
+	 * offering thread.
+	 */
+	private final AtomicLong tail;
+
+	/**
+	 * The number of events that have been dropped because the queue was full.
+	 */
+	private volatile long droppedCount;
+
+	/**
+	 * The number of times that the queue has filled up.
+	 */
+	private volatile long overflowCount;
+
+	/**
+	 * Whether the last event that was offered was dropped.
+	 */
+	private boolean full;
+
+	/**
+	 * Constructs a new, empty {@code InputEventQueue}.
+	 */
+	InputEventQueue() {
+		this.events = new InputEvent[InputEventQueue.CAPACITY];
+		for (int i = 0; i < this.events.length; i++) {
+			this.events[i] = new InputEvent();
+		}
+		this.head = new AtomicLong();
+		this.tail = new AtomicLong();
+	}
+
+	/**
+	 * Adds an event to the queue. This must only be called by the offering thread.
+	 *
+	 * @param handler the handler that should be called.
+	 * @param value the value to pass to the handler.
+	 * @return {@code true} if the event was added, or {@code false} if the queue was full
+	 * and the event was dropped.
+	 */
+	boolean offer(JoystickMonitor.Handler handler, double value) {
+		long t = this.tail.get();
+		if (t - this.head.get() >= InputEventQueue.CAPACITY) {
+			if (!this.full) {
+				this.full = true;
+				this.overflowCount++;
+			}
+			this.droppedCount++;
+			return false;
+		}
+		this.full = false;
+		InputEvent event = this.events[(int) t & (InputEventQueue.CAPACITY - 1)];
+		event.handler = handler;
+		event.value = value;
+		this.tail.lazySet(t + 1);
+		return true;
+	}
+
+	/**
+	 * Determines if there are any events waiting in the queue.
+	 *
+	 * @return {@code true} if the queue is not empty.
+	 */
+	boolean hasEvents() {
+		return this.tail.get() != this.head.get();
+	}
+
+	/**
+	 * Calls the handler of every event in the queue through the given monitor. This must
+	 * only be called by the draining thread. Each event is released before its handler is
+	 * called, so the handler does not hold up the offering thread.
+	 *
+	 * @param monitor the monitor to call the handlers through.
+	 * @return the number of events that were handled.
+	 */
+	int drain(JoystickMonitor monitor) {
+		long h = this.head.get();
+		long t = this.tail.get();
+		int count = 0;
+		while (h != t) {
+			InputEvent event = this.events[(int) h & (InputEventQueue.CAPACITY - 1)];
+			JoystickMonitor.Handler handler = event.handler;
+			double value = event.value;
+			event.handler = null;
+			this.head.lazySet(++h);
+			monitor.invokeHandler(handler, value);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the number of events that have been dropped because the queue was full.
+	 *
+	 * @return the number of dropped events.
+	 */
+	long getDroppedCount() {
+		return this.droppedCount;
+	}
+
+	/**
+	 * Gets the number of times that the queue has filled up. Each time counts once, no
+	 * matter how many events were dropped before there was room again.
+	 *
+	 * @return the number of overflows.
+	 */
+	long getOverflowCount() {
+		return this.overflowCount;
+	}
+
+	/**
+	 * An {@code InputEvent} is one slot of the ring. The slots are reused, so an event is
+	 * only valid until its position is released.
+	 */
+	private static final class InputEvent {
+
+		/**
+		 * The handler that should be called.
+		 */
+		private JoystickMonitor.Handler handler;
+
+		/**
+		 * The value to pass to the handler.
+		 */
+		private double value;
+
+	}
+
+}
@@ -24,25 +24,79 @@ import java.util.List;
 import com.qualcomm.robotcore.hardware.Gamepad;
 
 /**
- * A {@code Joystick} object represents one of the physical game controllers that are
- * connected to the driver station.
+ * A {@code Joystick} object represents the state of one of the physical game controllers
+ * that are connected to the driver station, at one moment in time.
  * <p>
- * Due to a currently existant problem in the way that the control system handles the
- * controllers, a new joystick object is contructed every hardware cycle. References to
- * joysticks should not be kept for any reason. Instead, all joysticks should be accessed
- * through {@link io.github.thunderbots.lightning.Lightning#getJoystick(int)
- * Lightning.getJoystick(int)}
+ * A {@code Joystick} is an immutable snapshot. Every input is read from the
+ * {@code Gamepad} once, when the snapshot is constructed, and kept in primitive fields, so
+ * reading the same input twice from one snapshot always gives the same value. A new
+ * snapshot of each controller is captured once per cycle of the task scheduler, and shared
+ * by every consumer in that cycle; if nothing on the controller has changed, the previous
+ * snapshot is kept and nothing is allocated. Because a snapshot never changes, references
+ * to joysticks should not be kept between loops. Instead, the current snapshot should be
+ * accessed through {@link io.github.thunderbots.lightning.Lightning#getJoystick(int)
+ * Lightning.getJoystick(int)} once per loop.
  *
  * @author Zach Ohara
  */
 public class Joystick {
 
 	/**
-	 * The {@code Gamepad} that this object should receive information from.
+	 * The buttons that were pressed when this snapshot was captured.
 	 *
-	 * @see com.qualcomm.robotcore.hardware.Gamepad
+	 * @see #getButtonMask()
 	 */
-	private Gamepad baseGamepad;
+	private final int buttonMask;
+
+	/**
+	 * The raw x-position of the left thumb stick, as reported by the {@code Gamepad}.
+	 */
+	private final float rawLeftStickX;
+
+	/**
+	 * The raw y-position of the left thumb stick, as reported by the {@code Gamepad}.
+	 */
+	private final float rawLeftStickY;
+
+	/**
+	 * The raw x-position of the right thumb stick, as reported by the {@code Gamepad}.
+	 */
+	private final float rawRightStickX;
+
+	/**
+	 * The raw y-position of the right thumb stick, as reported by the {@code Gamepad}.
+	 */
+	private final float rawRightStickY;
+
+	/**
+	 * The position of the left trigger.
+	 */
+	private final float leftTrigger;
+
+	/**
+	 * The position of the right trigger.
+	 */
+	private final float rightTrigger;
+
+	/**
+	 * The scaled x-position of the left thumb stick.
+	 */
+	private final double leftStickX;
+
+	/**
+	 * The scaled y-position of the left thumb stick, with up being positive.
+	 */
+	private final double leftStickY;
+
+	/**
+	 * The scaled x-position of the right thumb stick.
+	 */
+	private final double rightStickX;
+
+	/**
+	 * The scaled y-position of the right thumb stick, with up being positive.
+	 */
+	private final double rightStickY;
 
 	/**
 	 * The threshold that must be exceeded by the raw thumb stick values before it should
@@ -90,13 +144,124 @@ public class Joystick {
 	public static final double TRIGGER_PRESS_THRESHOLD = 0.95;
 
 	/**
-	 * Constructs a new {@code Joystick} with the given {@code Gamepad} as a base.
+	 * Constructs a new {@code Joystick} from a snapshot of the current state of the given
+	 * {@code Gamepad}.
 	 *
 	 * @param baseGamepad the base {@code Gamepad}
 	 */
 	public Joystick(Gamepad baseGamepad) {
-		this.baseGamepad = baseGamepad;
-		this.baseGamepad.setJoystickDeadzone((float) Joystick.THUMBSTICK_THRESHOLD);
+		this.buttonMask = Joystick.readButtonMask(baseGamepad);
+		this.rawLeftStickX = baseGamepad.left_stick_x;
+		this.rawLeftStickY = baseGamepad.left_stick_y;
+		this.rawRightStickX = baseGamepad.right_stick_x;
+		this.rawRightStickY = baseGamepad.right_stick_y;
+		this.leftTrigger = baseGamepad.left_trigger;
+		this.rightTrigger = baseGamepad.right_trigger;
+		this.leftStickX = Joystick.scaleJoystickInput(this.rawLeftStickX);
+		this.leftStickY = Joystick.scaleJoystickInput(-this.rawLeftStickY);
+		this.rightStickX = Joystick.scaleJoystickInput(this.rawRightStickX);
+		this.rightStickY = Joystick.scaleJoystickInput(-this.rawRightStickY);
+	}
+
+	/**
+	 * Prepares the given {@code Gamepad} to be used as the source of joystick snapshots.
+	 * This only has to be done once for each gamepad.
+	 *
+	 * @param gamepad the gamepad to configure.
+	 */
+	public static void configureGamepad(Gamepad gamepad) {
+		gamepad.setJoystickDeadzone((float) Joystick.THUMBSTICK_THRESHOLD);
+	}
+
+	/**
+	 * Captures a snapshot of the given {@code Gamepad}, reusing the given previous
+	 * snapshot if the state of the gamepad has not changed since it was captured.
+	 *
+	 * @param gamepad the gamepad to capture.
+	 * @param previous the previous snapshot of the gamepad, or {@code null} if there is
+	 * none.
+	 * @return a snapshot of the current state of the gamepad.
+	 */
+	public static Joystick capture(Gamepad gamepad, Joystick previous) {
+		if (previous != null && previous.matches(gamepad)) {
+			return previous;
+		}
+		return new Joystick(gamepad);
+	}
+
+	/**
+	 * Determines if this snapshot still represents the current state of the given
+	 * {@code Gamepad}.
+	 *
+	 * @param gamepad the gamepad to compare to.
+	 * @return {@code true} if every input of the gamepad is unchanged.
+	 */
+	private boolean matches(Gamepad gamepad) {
+		return this.rawLeftStickX == gamepad.left_stick_x
+				&& this.rawLeftStickY == gamepad.left_stick_y
+				&& this.rawRightStickX == gamepad.right_stick_x
+				&& this.rawRightStickY == gamepad.right_stick_y
+				&& this.leftTrigger == gamepad.left_trigger
+				&& this.rightTrigger == gamepad.right_trigger
+				&& this.buttonMask == Joystick.readButtonMask(gamepad);
+	}
+
+	/**
+	 * Packs the state of every button on the given {@code Gamepad} into a button mask.
+	 *
+	 * @param gamepad the gamepad to read.
+	 * @return the mask of the buttons currently pressed on the gamepad.
+	 * @see #getButtonMask()
+	 */
+	private static int readButtonMask(Gamepad gamepad) {
+		int mask = 0;
+		if (gamepad.a) {
+			mask |= JoystickButton.A.getMask();
+		}
+		if (gamepad.b) {
+			mask |= JoystickButton.B.getMask();
+		}
+		if (gamepad.x) {
+			mask |= JoystickButton.X.getMask();
+		}
+		if (gamepad.y) {
+			mask |= JoystickButton.Y.getMask();
+		}
+		if (gamepad.dpad_up) {
+			mask |= JoystickButton.DPAD_UP.getMask();
+		}
+		if (gamepad.dpad_down) {
+			mask |= JoystickButton.DPAD_DOWN.getMask();
+		}
+		if (gamepad.dpad_left) {
+			mask |= JoystickButton.DPAD_LEFT.getMask();
+		}
+		if (gamepad.dpad_right) {
+			mask |= JoystickButton.DPAD_RIGHT.getMask();
+		}
+		if (gamepad.left_bumper) {
+			mask |= JoystickButton.LEFT_BUMPER.getMask();
+		}
+		if (gamepad.right_bumper) {
+			mask |= JoystickButton.RIGHT_BUMPER.getMask();
+		}
+		if (gamepad.left_stick_button) {
+			mask |= JoystickButton.LEFT_STICK.getMask();
+		}
+		if (gamepad.right_stick_button) {
+			mask |= JoystickButton.RIGHT_STICK.getMask();
+		}
+		return mask;
+	}
+
+	/**
+	 * Determines if the given button was pressed when this snapshot was captured.
+	 *
+	 * @param button the button to check.
+	 * @return whether the button is being pressed.
+	 */
+	public boolean isPressed(JoystickButton button) {
+		return (this.buttonMask & button.getMask()) != 0;
 	}
 
 	/**
@@ -107,18 +272,18 @@ public class Joystick {
 	 * reported as zero.
 	 * <p>
 	 * This method acts as a delegate to
-	 * {@link io.github.thunderbots.lightning.utility.MathUtil#scaleToRange(double, double[], double[])
+	 * {@link io.github.thunderbots.lightning.utility.MathUtil#scaleToRange(double, double, double, double, double)
 	 * MathUtil.scaleToRange()}, but supplies the thumbstick constants as the range bounds.
 	 *
 	 * @param raw the raw input value from the joystick, between the threshold and maximum
 	 * positions.
 	 * @return the corresponding value between the minimum and maximum positions.
-	 * @see io.github.thunderbots.lightning.utility.MathUtil#scaleToRange(double, double[],
-	 * double[])
+	 * @see io.github.thunderbots.lightning.utility.MathUtil#scaleToRange(double, double,
+	 * double, double, double)
 	 */
 	private static double scaleJoystickInput(double raw) {
-		return MathUtil.scaleToRange(raw, new double[] {Joystick.THUMBSTICK_THRESHOLD,
-				Joystick.THUMBSTICK_MAX}, new double[] {Joystick.THUMBSTICK_REST, Joystick.THUMBSTICK_MAX});
+		return MathUtil.scaleToRange(raw, Joystick.THUMBSTICK_THRESHOLD,
+				Joystick.THUMBSTICK_MAX, Joystick.THUMBSTICK_REST, Joystick.THUMBSTICK_MAX);
 	}
 
 	/**
@@ -127,7 +292,7 @@ public class Joystick {
 	 * @return whether the A-button is being pressed.
 	 */
 	public boolean aButton() {
-		return this.baseGamepad.a;
+		return this.isPressed(JoystickButton.A);
 	}
 
 	/**
@@ -136,7 +301,7 @@ public class Joystick {
 	 * @return whether the B-button is being pressed.
 	 */
 	public boolean bButton() {
-		return this.baseGamepad.b;
+		return this.isPressed(JoystickButton.B);
 	}
 
 	/**
@@ -145,7 +310,7 @@ public class Joystick {
 	 * @return whether the X-button is being pressed.
 	 */
 	public boolean xButton() {
-		return this.baseGamepad.x;
+		return this.isPressed(JoystickButton.X);
 	}
 
 	/**
@@ -154,7 +319,7 @@ public class Joystick {
 	 * @return whether the Y-button is being pressed.
 	 */
 	public boolean yButton() {
-		return this.baseGamepad.y;
+		return this.isPressed(JoystickButton.Y);
 	}
 
 	/**
@@ -164,7 +329,7 @@ public class Joystick {
 	 * @return whether the up-direction is being pressed.
 	 */
 	public boolean upButton() {
-		return this.baseGamepad.dpad_up;
+		return this.isPressed(JoystickButton.DPAD_UP);
 	}
 
 	/**
@@ -174,7 +339,7 @@ public class Joystick {
 	 * @return whether the down-direction is being pressed.
 	 */
 	public boolean downButton() {
-		return this.baseGamepad.dpad_down;
+		return this.isPressed(JoystickButton.DPAD_DOWN);
 	}
 
 	/**
@@ -184,7 +349,7 @@ public class Joystick {
 	 * @return whether the left-direction is being pressed.
 	 */
 	public boolean leftButton() {
-		return this.baseGamepad.dpad_left;
+		return this.isPressed(JoystickButton.DPAD_LEFT);
 	}
 
 	/**
@@ -194,7 +359,7 @@ public class Joystick {
 	 * @return whether the right-direction is being pressed.
 	 */
 	public boolean rightButton() {
-		return this.baseGamepad.dpad_right;
+		return this.isPressed(JoystickButton.DPAD_RIGHT);
 	}
 
 	/**
@@ -203,7 +368,7 @@ public class Joystick {
 	 * @return whether the left bumper is being pressed.
 	 */
 	public boolean leftBumper() {
-		return this.baseGamepad.left_bumper;
+		return this.isPressed(JoystickButton.LEFT_BUMPER);
 	}
 
 	/**
@@ -212,7 +377,7 @@ public class Joystick {
 	 * @return whether the right bumper is being pressed.
 	 */
 	public boolean rightBumper() {
-		return this.baseGamepad.right_bumper;
+		return this.isPressed(JoystickButton.RIGHT_BUMPER);
 	}
 
 	/**
@@ -222,7 +387,7 @@ public class Joystick {
 	 * @return whether the left-stick button is being pressed.
 	 */
 	public boolean leftStickButton() {
-		return this.baseGamepad.left_stick_button;
+		return this.isPressed(JoystickButton.LEFT_STICK);
 	}
 
 	/**
@@ -232,7 +397,7 @@ public class Joystick {
 	 * @return whether the right-stick button is being pressed.
 	 */
 	public boolean rightStickButton() {
-		return this.baseGamepad.right_stick_button;
+		return this.isPressed(JoystickButton.RIGHT_STICK);
 	}
 
 	/**
@@ -241,7 +406,7 @@ public class Joystick {
 	 * @return the current position of the left trigger.
 	 */
 	public double leftTrigger() {
-		return this.baseGamepad.left_trigger;
+		return this.leftTrigger;
 	}
 
 	/**
@@ -261,7 +426,7 @@ public class Joystick {
 	 * @return the current position of the right trigger.
 	 */
 	public double rightTrigger() {
-		return this.baseGamepad.right_trigger;
+		return this.rightTrigger;
 	}
 
 	/**
@@ -281,7 +446,7 @@ public class Joystick {
 	 * @return the current x-position of the left thumb stick.
 	 */
 	public double leftStickX() {
-		return Joystick.scaleJoystickInput(this.baseGamepad.left_stick_x);
+		return this.leftStickX;
 	}
 
 	/**
@@ -312,7 +477,7 @@ public class Joystick {
 	 * @return the current y-position of the left thumb stick.
 	 */
 	public double leftStickY() {
-		return Joystick.scaleJoystickInput(-this.baseGamepad.left_stick_y);
+		return this.leftStickY;
 	}
 
 	/**
@@ -343,7 +508,7 @@ public class Joystick {
 	 * @return the current x-position of the right thumb stick.
 	 */
 	public double rightStickX() {
-		return Joystick.scaleJoystickInput(this.baseGamepad.right_stick_x);
+		return this.rightStickX;
 	}
 
 	/**
@@ -374,7 +539,7 @@ public class Joystick {
 	 * @return the current y-position of the right thumb stick.
 	 */
 	public double rightStickY() {
-		return Joystick.scaleJoystickInput(-this.baseGamepad.right_stick_y);
+		return this.rightStickY;
 	}
 
 	/**
@@ -399,6 +564,42 @@ public class Joystick {
 		return this.rightStickY() > Joystick.JOYSTICK_PRESS_THRESHOLD;
 	}
 
+	/**
+	 * Returns the current value of the given analog axis.
+	 *
+	 * @param axis the axis to read.
+	 * @return the current value of the axis.
+	 */
+	public double getAxis(JoystickAxis axis) {
+		switch (axis) {
+			case LEFT_STICK_X:
+				return this.leftStickX;
+			case LEFT_STICK_Y:
+				return this.leftStickY;
+			case RIGHT_STICK_X:
+				return this.rightStickX;
+			case RIGHT_STICK_Y:
+				return this.rightStickY;
+			case LEFT_TRIGGER:
+				return this.leftTrigger;
+			case RIGHT_TRIGGER:
+				return this.rightTrigger;
+			default:
+				throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Packs the state of every button on this joystick into the bits of an {@code int}. A
+	 * button is pressed if its {@linkplain JoystickButton#getMask() mask bit} is set. Unlike
+	 * {@link #toButtonList()}, this method does not allocate.
+	 *
+	 * @return the mask of the buttons currently pressed on the joystick.
+	 */
+	public int getButtonMask() {
+		return this.buttonMask;
+	}
+
 	/**
 	 * Generates a list of {@code JoystickButton}s that represent all the buttons that are
 	 * currently pressed on this joystick.
@@ -0,0 +1,42 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control;
+
+/**
+ * The {@code JoystickAxis} enumeration contains all analog inputs on the joysticks. Stick
+ * axes range from -1 to 1, with right and up being positive, and trigger axes range from
+ * 0 to 1.
+ *
+ * @author Zach Ohara
+ * @see Joystick#getAxis(JoystickAxis)
+ */
+public enum JoystickAxis {
+
+	LEFT_STICK_X,
+	LEFT_STICK_Y,
+	RIGHT_STICK_X,
+	RIGHT_STICK_Y,
+
+	LEFT_TRIGGER,
+	RIGHT_TRIGGER;
+
+	@Override
+	public String toString() {
+		return this.name();
+	}
+
+}
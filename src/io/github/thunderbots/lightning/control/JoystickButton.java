@@ -41,6 +41,17 @@ public enum JoystickButton {
 	LEFT_BUMPER,
 	RIGHT_BUMPER;
 
+	/**
+	 * Gets the bit that represents this button in a button mask. The bit of each button is
+	 * {@code 1 << ordinal()}.
+	 *
+	 * @return the mask bit of this button.
+	 * @see Joystick#getButtonMask()
+	 */
+	public int getMask() {
+		return 1 << this.ordinal();
+	}
+
 	@Override
 	public String toString() {
 		return this.name();
@@ -16,22 +16,55 @@
 
 package io.github.thunderbots.lightning.control;
 
-import io.github.thunderbots.lightning.Lightning;
 import io.github.thunderbots.lightning.control.ButtonHandler.PressType;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * A {@code JoystickMonitor} is an object that attaches to a specific joystick object, and
+ * A {@code JoystickMonitor} is an object that attaches to a specific gamepad source, and
  * monitors any changes in the joystick inputs. Any detected changes are forwarded to the
  * objects that are listening to the specific joystick.
  * <p>
  * Objects that should listen to the joysticks should register themselves with the
  * appropriate {@code JoystickMonitor}.
+ * <p>
+ * The state of the buttons is kept as a bit mask, as given by
+ * {@link Joystick#getButtonMask()}. On every update, the buttons that changed are found
+ * with a single exclusive-or of the previous and current masks, and only the handlers of
+ * those buttons are looked at. An update in which no button changed does no further work.
+ * <p>
+ * The {@code ButtonHandler} annotations of a listener are read once, when the listener is
+ * registered, and turned into a table of prebuilt handlers for each button and press type.
+ * Dispatching an event never looks up an annotation. Annotated methods are still called
+ * through reflection, because the Android runtime cannot generate adapter classes, but the
+ * access check is disabled ahead of time, and each handler reuses one argument array for
+ * every call. A method that takes the value of an axis still needs the value boxed, but
+ * the boxed value is reused until the value changes.
+ * Handlers that should avoid reflection completely can be registered as a
+ * {@code Runnable} with {@link #registerHandler(JoystickButton, PressType, Runnable)}.
+ * <p>
+ * Presses of the timed {@code PressType}s, and presses of button combinations declared with
+ * {@link ButtonCombo}, are found by a small state machine for each handler, which keeps
+ * the time that its buttons were pressed. The state machines are only run while one of
+ * their buttons is held down or has just changed, and they allocate nothing.
+ * <p>
+ * The analog axes of the joystick are also monitored. A listener can be told whenever an
+ * axis moves by more than a minimum amount, or an axis can be treated as a button that is
+ * pressed when it reaches a threshold. Thresholds have hysteresis, so an axis that rests
+ * near a threshold does not cause a stream of events. Axes that have not changed since
+ * the last update are skipped with a single comparison.
+ * <p>
+ * By default, handlers are called on the task scheduler thread as soon as a change is
+ * detected. A listener that may take a long time can instead be registered with a
+ * {@link DispatchMode} that queues its events, to be handled on the op mode thread or on a
+ * handler thread that belongs to the monitor. The queues are bounded, and events that do
+ * not fit are dropped and counted, so a stalled listener can never stall the monitor.
+ * <p>
+ * An exception thrown by a handler does not stop the monitor. It is printed, and counted
+ * by {@link #getHandlerExceptionCount()}.
  *
  * @author Zach Ohara
  * @author Pranav Mathur
@@ -39,78 +72,598 @@ import java.util.Map;
 public class JoystickMonitor {
 
 	/**
-	 * The joystick to monitor.
+	 * The ID of the joystick to monitor, which is matched against the {@code joystick}
+	 * values of handler annotations.
+	 */
+	private final int joystick;
+
+	/**
+	 * The source of the snapshots of the joystick to monitor.
+	 */
+	private final GamepadSource source;
+
+	/**
+	 * The handlers that are called when buttons specified in the {@code ButtonHandler}
+	 * annotation are updated, indexed first by the ordinal of the {@code PressType} and
+	 * then by the ordinal of the {@code JoystickButton}. This array is replaced, never
+	 * modified, when a listener is registered, so it can be read without locking.
+	 */
+	private volatile Handler[][][] handlers;
+
+	/**
+	 * The bindings of the timed press types and the button combinations. Like the handler
+	 * table, this array is replaced, never modified, when a binding is added.
+	 */
+	private volatile ButtonBinding[] buttonBindings;
+
+	/**
+	 * The mask of every button that is used by one of the {@link #buttonBindings}.
+	 */
+	private volatile int buttonBindingMask;
+
+	/**
+	 * The bindings of the analog axes, indexed by the ordinal of the {@code JoystickAxis}.
+	 * Like the handler table, this array is replaced, never modified, when a binding is
+	 * added.
 	 */
-	/*
-	 * (non-Javadoc) If at all possible in the future, this should be a reference to a
-	 * Joystick object, not just an ID number.
+	private volatile AxisBinding[][] axisBindings;
+
+	/**
+	 * The queue of events that are handled on the op mode thread, or {@code null} if no
+	 * handler uses {@link DispatchMode#OP_MODE}.
 	 */
-	private int joystick;
+	private volatile InputEventQueue opModeQueue;
 
 	/**
-	 * The {@code Methods} that are called when buttons specified in the
-	 * {@code ButtonHandler} annotation are updated.
+	 * The queue of events that are handled on the handler thread, or {@code null} if no
+	 * handler uses {@link DispatchMode#HANDLER_THREAD}.
 	 */
-	private Map<JoystickButton, List<Method>> handlers;
+	private volatile InputEventQueue handlerQueue;
 
 	/**
-	 * The map of all the appropriate methods to the specific objects that contain them.
+	 * The thread that handles the events in {@link #handlerQueue}, or {@code null} if it
+	 * has not been started.
 	 */
-	private Map<Method, JoystickListener> instances;
+	private volatile HandlerThread handlerThread;
 
 	/**
-	 * The latest 'snapshot' of the buttons on the gamepad. The list contains every button
-	 * on the joystick that is pressed, in no specific order.
+	 * The number of exceptions that have been thrown by handlers. Handlers run on several
+	 * threads, depending on their dispatch mode, so the count is atomic.
 	 */
-	private List<JoystickButton> lastButtons;
+	private final AtomicLong handlerExceptionCount;
 
 	/**
-	 * Constructs a new JoystickMonitor that should monitor the given joystick.
+	 * The latest 'snapshot' of the buttons on the gamepad, as a bit mask of the buttons
+	 * that are pressed.
 	 *
-	 * @param joystick the joystick to monitor.
+	 * @see Joystick#getButtonMask()
+	 */
+	private int lastButtons;
+
+	/**
+	 * The value of each analog axis at the latest update, indexed by the ordinal of the
+	 * {@code JoystickAxis}.
 	 */
-	public JoystickMonitor(int joystick) {
+	private final double[] lastAxisValues;
+
+	/**
+	 * Every analog axis, in ordinal order. This is kept so the array of values does not
+	 * have to be copied on every update.
+	 */
+	private static final JoystickAxis[] AXES = JoystickAxis.values();
+
+	/**
+	 * Constructs a new JoystickMonitor that should monitor the given joystick. Monitors are
+	 * normally created by a {@link JoystickRegistry}, which also runs them.
+	 *
+	 * @param joystick the ID of the joystick to monitor.
+	 * @param source the source of the snapshots of the joystick.
+	 */
+	public JoystickMonitor(int joystick, GamepadSource source) {
 		this.joystick = joystick;
-		this.handlers = new HashMap<JoystickButton, List<Method>>();
-		this.instances = new HashMap<Method, JoystickListener>();
+		this.source = source;
+		this.handlers = new Handler[PressType.values().length][JoystickButton.values().length][];
+		this.buttonBindings = new ButtonBinding[0];
+		this.axisBindings = new AxisBinding[JoystickMonitor.AXES.length][0];
+		this.lastAxisValues = new double[JoystickMonitor.AXES.length];
+		this.handlerExceptionCount = new AtomicLong();
 		this.fillHandlerMap();
-		Lightning.getTaskScheduler().registerTask(new MonitorUpdateRunnable());
-		this.lastButtons = Lightning.getJoystick(this.joystick).toButtonList();
+		Joystick current = source.getJoystick();
+		this.lastButtons = current.getButtonMask();
+		for (int i = 0; i < JoystickMonitor.AXES.length; i++) {
+			this.lastAxisValues[i] = current.getAxis(JoystickMonitor.AXES[i]);
+		}
+	}
+
+	/**
+	 * Gets the ID of the joystick that this monitor is monitoring.
+	 *
+	 * @return the ID of the joystick.
+	 */
+	public int getJoystickId() {
+		return this.joystick;
 	}
-	
+
 	/**
 	 * Registers the given joystick listener so that joystick updates can be sent to it.
+	 * The handlers of the listener are called inline, on the task scheduler thread.
+	 *
 	 * @param listener the class to be searched for listener Button Handlers
+	 * @throws IllegalArgumentException if an annotated method does not take the parameters
+	 * required by its annotation, or an {@code AxisHandler} has invalid values.
+	 * @see #registerJoystickListener(JoystickListener, DispatchMode)
 	 */
 	public void registerJoystickListener(JoystickListener listener) {
+		this.registerJoystickListener(listener, DispatchMode.INLINE);
+	}
+
+	/**
+	 * Registers the given joystick listener so that joystick updates can be sent to it.
+	 * Every public method of the listener that has a {@code ButtonHandler} or
+	 * {@code AxisHandler} annotation for this joystick is added to the handler tables.
+	 *
+	 * @param listener the class to be searched for listener Button Handlers
+	 * @param mode the thread that the handlers of the listener should be called on.
+	 * @throws IllegalArgumentException if an annotated method does not take the parameters
+	 * required by its annotation, or an {@code AxisHandler} has invalid values.
+	 */
+	public synchronized void registerJoystickListener(JoystickListener listener,
+			DispatchMode mode) {
+		Handler[][][] newHandlers = this.copyHandlers();
+		ButtonBinding[] newButtonBindings = this.buttonBindings;
+		AxisBinding[][] newBindings = this.axisBindings.clone();
+		Joystick current = this.source.getJoystick();
+		long now = System.nanoTime();
 		Class<?> c = listener.getClass();
 		for (Method m : c.getMethods()) {
-			if (m.isAnnotationPresent(ButtonHandler.class)
-					&& m.getAnnotation(ButtonHandler.class).joystick() == this.joystick) {
-				this.handlers.get(m.getAnnotation(ButtonHandler.class).button()).add(m);
-				this.instances.put(m, listener);
+			ButtonHandler a = m.getAnnotation(ButtonHandler.class);
+			if (a != null && a.joystick() == this.joystick) {
+				if (m.getParameterTypes().length != 0) {
+					throw new IllegalArgumentException("Button handler " + m
+							+ " must not take any parameters");
+				}
+				Handler handler = this.dispatchHandler(new MethodHandler(m, listener), mode);
+				if (JoystickMonitor.isEdge(a.type())) {
+					JoystickMonitor.addHandler(newHandlers, a.type(), a.button(), handler);
+				} else {
+					newButtonBindings = JoystickMonitor.addBinding(newButtonBindings,
+							new ButtonBinding(handler, a.button().getMask(), a.type(),
+									a.holdTime(), a.repeatInterval(), a.doubleTapTime(),
+									current.getButtonMask(), now));
+				}
+			}
+			ButtonCombo b = m.getAnnotation(ButtonCombo.class);
+			if (b != null && b.joystick() == this.joystick) {
+				if (m.getParameterTypes().length != 0) {
+					throw new IllegalArgumentException("Button combo handler " + m
+							+ " must not take any parameters");
+				}
+				Handler handler = this.dispatchHandler(new MethodHandler(m, listener), mode);
+				newButtonBindings = JoystickMonitor.addBinding(newButtonBindings,
+						new ButtonBinding(handler, JoystickMonitor.getMask(b.buttons()),
+								b.type(), b.holdTime(), b.repeatInterval(), b.doubleTapTime(),
+								current.getButtonMask(), now));
+			}
+			AxisHandler h = m.getAnnotation(AxisHandler.class);
+			if (h != null && h.joystick() == this.joystick) {
+				Class<?>[] parameters = m.getParameterTypes();
+				boolean takesValue = parameters.length == 1 && parameters[0] == double.class;
+				boolean threshold = !Double.isNaN(h.threshold());
+				if (!takesValue && (!threshold || parameters.length != 0)) {
+					throw new IllegalArgumentException("Axis handler " + m + " must take "
+							+ (threshold ? "no parameters or " : "") + "a single double");
+				}
+				Handler handler = this.dispatchHandler(new MethodHandler(m, listener), mode);
+				double value = current.getAxis(h.axis());
+				AxisBinding binding = threshold
+						? AxisBinding.threshold(handler, h.threshold(), h.hysteresis(),
+								h.type(), value)
+						: AxisBinding.change(handler, h.minDelta(), value);
+				JoystickMonitor.addBinding(newBindings, h.axis(), binding);
 			}
 		}
+		this.handlers = newHandlers;
+		this.setButtonBindings(newButtonBindings);
+		this.axisBindings = newBindings;
 	}
 
 	/**
-	 * Checks for updates in the joystick, and forwards those updates to all the registered
-	 * joystick listeners.
-	 */
-	private void runHandlers() {
-		List<JoystickButton> newButtons = Lightning.getJoystick(this.joystick).toButtonList();
-		for (JoystickButton button : JoystickButton.values()) {
-			for (Method m : this.handlers.get(button)) {
-				ButtonHandler a = m.getAnnotation(ButtonHandler.class);
-				if (a.type() == PressType.PRESS) {
-					if (!this.lastButtons.contains(button) && newButtons.contains(button)) {
-						this.invokeListenerMethod(m, this.instances.get(m));
-					}
+	 * Registers the given action to be run when the given button is pressed or released,
+	 * or on one of the timed press types, with the default timing. This is equivalent to
+	 * registering a listener with a {@code ButtonHandler} method, but the action is called
+	 * directly instead of through reflection.
+	 *
+	 * @param button the button that should be responded to.
+	 * @param type the type of press that the action should be run in response to.
+	 * @param action the action to run.
+	 */
+	public void registerHandler(JoystickButton button, PressType type, Runnable action) {
+		this.registerHandler(button, type, action, DispatchMode.INLINE);
+	}
+
+	/**
+	 * Registers the given action to be run on the given thread when the given button is
+	 * pressed or released, or on one of the timed press types, with the default timing.
+	 *
+	 * @param button the button that should be responded to.
+	 * @param type the type of press that the action should be run in response to.
+	 * @param action the action to run.
+	 * @param mode the thread that the action should be run on.
+	 */
+	public synchronized void registerHandler(JoystickButton button, PressType type,
+			Runnable action, DispatchMode mode) {
+		Handler handler = this.dispatchHandler(new RunnableHandler(action), mode);
+		if (JoystickMonitor.isEdge(type)) {
+			Handler[][][] newHandlers = this.copyHandlers();
+			JoystickMonitor.addHandler(newHandlers, type, button, handler);
+			this.handlers = newHandlers;
+		} else {
+			this.addButtonBinding(handler, button.getMask(), type);
+		}
+	}
+
+	/**
+	 * Registers the given action to be run when the given combination of buttons is
+	 * pressed, released, or pressed with one of the timed press types, with the default
+	 * timing. This is equivalent to registering a listener with a {@code ButtonCombo}
+	 * method.
+	 *
+	 * @param type the type of press that the action should be run in response to.
+	 * @param action the action to run.
+	 * @param buttons the buttons that must be held down together.
+	 * @throws IllegalArgumentException if no buttons are given.
+	 */
+	public synchronized void registerCombo(PressType type, Runnable action,
+			JoystickButton... buttons) {
+		this.addButtonBinding(new RunnableHandler(action), JoystickMonitor.getMask(buttons),
+				type);
+	}
+
+	/**
+	 * Registers the given listener to be told whenever the given axis moves by at least
+	 * {@code minDelta} since the listener was last told, or reaches its rest position or
+	 * either end of its range.
+	 *
+	 * @param axis the axis that should be responded to.
+	 * @param minDelta the smallest change that should be reported.
+	 * @param listener the listener to tell about changes.
+	 * @throws IllegalArgumentException if {@code minDelta} is negative.
+	 */
+	public void registerAxisListener(JoystickAxis axis, double minDelta,
+			AxisListener listener) {
+		this.registerAxisListener(axis, minDelta, listener, DispatchMode.INLINE);
+	}
+
+	/**
+	 * Registers the given listener to be told on the given thread whenever the given axis
+	 * moves by at least {@code minDelta}.
+	 *
+	 * @param axis the axis that should be responded to.
+	 * @param minDelta the smallest change that should be reported.
+	 * @param listener the listener to tell about changes.
+	 * @param mode the thread that the listener should be told on.
+	 * @throws IllegalArgumentException if {@code minDelta} is negative.
+	 * @see #registerAxisListener(JoystickAxis, double, AxisListener)
+	 */
+	public synchronized void registerAxisListener(JoystickAxis axis, double minDelta,
+			AxisListener listener, DispatchMode mode) {
+		AxisBinding[][] newBindings = this.axisBindings.clone();
+		double value = this.source.getJoystick().getAxis(axis);
+		JoystickMonitor.addBinding(newBindings, axis, AxisBinding.change(
+				this.dispatchHandler(new AxisListenerHandler(axis, listener), mode),
+				minDelta, value));
+		this.axisBindings = newBindings;
+	}
+
+	/**
+	 * Registers the given action to be run when the given axis crosses a threshold, as if
+	 * the axis were a button. The axis is pressed when it reaches the threshold, and
+	 * released when it moves back past the threshold by more than the hysteresis. If the
+	 * threshold is negative, the axis is pressed by moving it below the threshold.
+	 *
+	 * @param axis the axis that should be responded to.
+	 * @param threshold the value at which the axis is pressed.
+	 * @param hysteresis the distance past the threshold that releases the axis.
+	 * @param type the type of crossing that the action should be run in response to.
+	 * @param action the action to run.
+	 * @throws IllegalArgumentException if the threshold is zero or not a number, the
+	 * hysteresis is negative, or the type is not {@code PRESS} or {@code RELEASE}.
+	 */
+	public void registerAxisThreshold(JoystickAxis axis, double threshold,
+			double hysteresis, PressType type, Runnable action) {
+		this.registerAxisThreshold(axis, threshold, hysteresis, type, action,
+				DispatchMode.INLINE);
+	}
+
+	/**
+	 * Registers the given action to be run on the given thread when the given axis crosses
+	 * a threshold.
+	 *
+	 * @param axis the axis that should be responded to.
+	 * @param threshold the value at which the axis is pressed.
+	 * @param hysteresis the distance past the threshold that releases the axis.
+	 * @param type the type of crossing that the action should be run in response to.
+	 * @param action the action to run.
+	 * @param mode the thread that the action should be run on.
+	 * @throws IllegalArgumentException if the threshold is zero or not a number, the
+	 * hysteresis is negative, or the type is not {@code PRESS} or {@code RELEASE}.
+	 * @see #registerAxisThreshold(JoystickAxis, double, double, PressType, Runnable)
+	 */
+	public synchronized void registerAxisThreshold(JoystickAxis axis, double threshold,
+			double hysteresis, PressType type, Runnable action, DispatchMode mode) {
+		AxisBinding[][] newBindings = this.axisBindings.clone();
+		double value = this.source.getJoystick().getAxis(axis);
+		JoystickMonitor.addBinding(newBindings, axis, AxisBinding.threshold(
+				this.dispatchHandler(new RunnableHandler(action), mode), threshold,
+				hysteresis, type, value));
+		this.axisBindings = newBindings;
+	}
+
+	/**
+	 * Calls the handlers of every event that is waiting to be handled on the op mode
+	 * thread. This should be called regularly by the op mode thread if any listener was
+	 * registered with {@link DispatchMode#OP_MODE}, and must not be called by more than one
+	 * thread.
+	 *
+	 * @return the number of events that were handled.
+	 */
+	public int dispatchEvents() {
+		InputEventQueue queue = this.opModeQueue;
+		if (queue == null) {
+			return 0;
+		}
+		return queue.drain(this);
+	}
+
+	/**
+	 * Gets the number of events that have been dropped because a queue was full.
+	 *
+	 * @return the number of dropped events.
+	 */
+	public long getDroppedEventCount() {
+		long count = 0;
+		InputEventQueue queue = this.opModeQueue;
+		if (queue != null) {
+			count += queue.getDroppedCount();
+		}
+		queue = this.handlerQueue;
+		if (queue != null) {
+			count += queue.getDroppedCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the number of times that a queue of events has filled up.
+	 *
+	 * @return the number of overflows.
+	 */
+	public long getEventOverflowCount() {
+		long count = 0;
+		InputEventQueue queue = this.opModeQueue;
+		if (queue != null) {
+			count += queue.getOverflowCount();
+		}
+		queue = this.handlerQueue;
+		if (queue != null) {
+			count += queue.getOverflowCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Stops the handler thread of this monitor, if it was started. Events that are still
+	 * queued for the handler thread are not handled.
+	 */
+	public synchronized void shutdown() {
+		HandlerThread thread = this.handlerThread;
+		if (thread != null) {
+			thread.requestStop();
+			this.handlerThread = null;
+		}
+	}
+
+	/**
+	 * Adds a binding for a timed press type or a combination, with the default timing.
+	 * This must only be called while holding the lock of this monitor.
+	 *
+	 * @param handler the handler of the binding.
+	 * @param mask the mask of the buttons of the binding.
+	 * @param type the press type of the binding.
+	 */
+	private void addButtonBinding(Handler handler, int mask, PressType type) {
+		ButtonBinding binding = new ButtonBinding(handler, mask, type,
+				ButtonHandler.DEFAULT_HOLD_TIME, ButtonHandler.DEFAULT_REPEAT_INTERVAL,
+				ButtonHandler.DEFAULT_DOUBLE_TAP_TIME,
+				this.source.getJoystick().getButtonMask(), System.nanoTime());
+		this.setButtonBindings(JoystickMonitor.addBinding(this.buttonBindings, binding));
+	}
+
+	/**
+	 * Replaces the bindings of the timed press types and combinations, and updates the mask
+	 * of the buttons that they use. This must only be called while holding the lock of
+	 * this monitor.
+	 *
+	 * @param bindings the new bindings.
+	 */
+	private void setButtonBindings(ButtonBinding[] bindings) {
+		int mask = 0;
+		for (ButtonBinding b : bindings) {
+			mask |= b.mask;
+		}
+		this.buttonBindings = bindings;
+		this.buttonBindingMask = mask;
+	}
+
+	/**
+	 * Adds a binding to the given array of button bindings.
+	 *
+	 * @param bindings the current bindings.
+	 * @param binding the binding to add.
+	 * @return a new array with the binding added.
+	 */
+	private static ButtonBinding[] addBinding(ButtonBinding[] bindings,
+			ButtonBinding binding) {
+		ButtonBinding[] added = new ButtonBinding[bindings.length + 1];
+		System.arraycopy(bindings, 0, added, 0, bindings.length);
+		added[bindings.length] = binding;
+		return added;
+	}
+
+	/**
+	 * Determines if the given press type is a plain press or release, which is handled
+	 * through the handler table instead of a button binding.
+	 *
+	 * @param type the press type.
+	 * @return {@code true} if the press type is {@code PRESS} or {@code RELEASE}.
+	 */
+	private static boolean isEdge(PressType type) {
+		return type == PressType.PRESS || type == PressType.RELEASE;
+	}
+
+	/**
+	 * Gets the mask of the given buttons.
+	 *
+	 * @param buttons the buttons to get the mask of.
+	 * @return the mask of the buttons.
+	 * @throws IllegalArgumentException if no buttons are given.
+	 */
+	private static int getMask(JoystickButton[] buttons) {
+		if (buttons.length == 0) {
+			throw new IllegalArgumentException(
+					"A button combination needs at least one button");
+		}
+		int mask = 0;
+		for (JoystickButton b : buttons) {
+			mask |= b.getMask();
+		}
+		return mask;
+	}
+
+	/**
+	 * Wraps the given handler so that it is called on the thread given by the dispatch
+	 * mode. The queue and thread that the mode needs are created the first time that they
+	 * are used. This must only be called while holding the lock of this monitor.
+	 *
+	 * @param handler the handler to wrap.
+	 * @param mode the thread that the handler should be called on.
+	 * @return the wrapped handler.
+	 */
+	private Handler dispatchHandler(Handler handler, DispatchMode mode) {
+		switch (mode) {
+			case OP_MODE:
+				if (this.opModeQueue == null) {
+					this.opModeQueue = new InputEventQueue();
 				}
-				if (a.type() == PressType.RELEASE) {
-					if (this.lastButtons.contains(button) && !newButtons.contains(button)) {
-						this.invokeListenerMethod(m, this.instances.get(m));
-					}
+				return new QueuedHandler(handler, this.opModeQueue);
+			case HANDLER_THREAD:
+				if (this.handlerQueue == null) {
+					this.handlerQueue = new InputEventQueue();
+				}
+				if (this.handlerThread == null) {
+					this.handlerThread = new HandlerThread(this.handlerQueue);
+					this.handlerThread.start();
+				}
+				return new QueuedHandler(handler, this.handlerQueue);
+			default:
+				return handler;
+		}
+	}
+
+	/**
+	 * Gets the number of exceptions that have been thrown by handlers of this monitor.
+	 *
+	 * @return the number of handler exceptions.
+	 */
+	public long getHandlerExceptionCount() {
+		return this.handlerExceptionCount.get();
+	}
+
+	/**
+	 * Makes a copy of the handler table that can be modified without affecting the
+	 * current table.
+	 *
+	 * @return a copy of the handler table.
+	 */
+	private Handler[][][] copyHandlers() {
+		Handler[][][] copy = this.handlers.clone();
+		for (int i = 0; i < copy.length; i++) {
+			copy[i] = copy[i].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * Adds a handler to the given handler table.
+	 *
+	 * @param table the handler table to add to.
+	 * @param type the press type of the handler.
+	 * @param button the button of the handler.
+	 * @param handler the handler to add.
+	 */
+	private static void addHandler(Handler[][][] table, PressType type, JoystickButton button,
+			Handler handler) {
+		Handler[] old = table[type.ordinal()][button.ordinal()];
+		Handler[] added = new Handler[old.length + 1];
+		System.arraycopy(old, 0, added, 0, old.length);
+		added[old.length] = handler;
+		table[type.ordinal()][button.ordinal()] = added;
+	}
+
+	/**
+	 * Adds a binding to the given table of axis bindings. The array of bindings for the
+	 * axis is replaced, so the table must already be a copy.
+	 *
+	 * @param table the binding table to add to.
+	 * @param axis the axis of the binding.
+	 * @param binding the binding to add.
+	 */
+	private static void addBinding(AxisBinding[][] table, JoystickAxis axis,
+			AxisBinding binding) {
+		AxisBinding[] old = table[axis.ordinal()];
+		AxisBinding[] added = new AxisBinding[old.length + 1];
+		System.arraycopy(old, 0, added, 0, old.length);
+		added[old.length] = binding;
+		table[axis.ordinal()] = added;
+	}
+
+	/**
+	 * Checks for updates in the joystick, and forwards those updates to all the registered
+	 * joystick listeners. This is called by the polling task of the registry, after the
+	 * snapshot of the joystick has been captured.
+	 */
+	void update() {
+		Joystick current = this.source.getJoystick();
+		this.updateButtons(current.getButtonMask());
+		this.updateAxes(current);
+		HandlerThread thread = this.handlerThread;
+		if (thread != null && thread.queue.hasEvents()) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Calls the handlers of every button that has changed since the last update.
+	 *
+	 * @param newButtons the current mask of pressed buttons.
+	 */
+	private void updateButtons(int newButtons) {
+		int changed = this.lastButtons ^ newButtons;
+		int bindingMask = this.buttonBindingMask;
+		if (changed == 0 && (newButtons & bindingMask) == 0) {
+			return;
+		}
+		if (changed != 0) {
+			Handler[][][] handlers = this.handlers;
+			this.dispatch(handlers[PressType.PRESS.ordinal()], changed & newButtons, 1);
+			this.dispatch(handlers[PressType.RELEASE.ordinal()], changed & this.lastButtons, 0);
+		}
+		if (((changed | newButtons) & bindingMask) != 0) {
+			ButtonBinding[] bindings = this.buttonBindings;
+			long now = System.nanoTime();
+			for (int i = 0; i < bindings.length; i++) {
+				if (bindings[i].update(newButtons, now)) {
+					this.invokeHandler(bindings[i].handler, bindings[i].active ? 1 : 0);
 				}
 			}
 		}
@@ -118,15 +671,61 @@ public class JoystickMonitor {
 	}
 
 	/**
-	 * Invokes the given method on the given instance, and catches all exceptions.
+	 * Updates the bindings of every axis that has changed since the last update, and calls
+	 * the handlers of the bindings that should fire.
+	 *
+	 * @param current the current state of the joystick.
+	 */
+	private void updateAxes(Joystick current) {
+		AxisBinding[][] bindings = this.axisBindings;
+		for (int i = 0; i < JoystickMonitor.AXES.length; i++) {
+			double value = current.getAxis(JoystickMonitor.AXES[i]);
+			if (value == this.lastAxisValues[i]) {
+				continue;
+			}
+			this.lastAxisValues[i] = value;
+			AxisBinding[] axis = bindings[i];
+			for (int j = 0; j < axis.length; j++) {
+				if (axis[j].update(value)) {
+					this.invokeHandler(axis[j].handler, value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calls every handler in the given table for each button that is set in the given
+	 * mask.
 	 *
-	 * @param method the method to call.
-	 * @param instance the instance to call the method on.
+	 * @param table the handlers for one press type, indexed by button ordinal.
+	 * @param buttons the mask of the buttons to call the handlers of.
+	 * @param value the value to pass to the handlers.
 	 */
-	private void invokeListenerMethod(Method method, Object instance) {
+	private void dispatch(Handler[][] table, int buttons, double value) {
+		while (buttons != 0) {
+			int button = Integer.numberOfTrailingZeros(buttons);
+			buttons &= buttons - 1;
+			Handler[] handlers = table[button];
+			for (int i = 0; i < handlers.length; i++) {
+				this.invokeHandler(handlers[i], value);
+			}
+		}
+	}
+
+	/**
+	 * Invokes the given handler, and catches all exceptions.
+	 *
+	 * @param handler the handler to call.
+	 * @param value the value to pass to the handler.
+	 */
+	void invokeHandler(Handler handler, double value) {
 		try {
-			method.invoke(instance, new Object[0]);
+			handler.invoke(value);
+		} catch (InvocationTargetException e) {
+			this.handlerExceptionCount.incrementAndGet();
+			e.getCause().printStackTrace();
 		} catch (Exception e) {
+			this.handlerExceptionCount.incrementAndGet();
 			e.printStackTrace();
 		}
 	}
@@ -135,20 +734,561 @@ public class JoystickMonitor {
 	 * Populates the maip of button handlers with an entry for every joystick button.
 	 */
 	private void fillHandlerMap() {
-		for (JoystickButton button : JoystickButton.values()) {
-			this.handlers.put(button, new LinkedList<Method>());
+		for (Handler[][] table : this.handlers) {
+			for (int i = 0; i < table.length; i++) {
+				table[i] = new Handler[0];
+			}
+		}
+	}
+
+	/**
+	 * A {@code Handler} is a prebuilt call to something that handles a button or an axis.
+	 */
+	abstract static class Handler {
+
+		/**
+		 * Calls the handler.
+		 *
+		 * @param value the value of the axis, or 1 for a button press and 0 for a button
+		 * release.
+		 * @throws Exception if the handler throws an exception.
+		 */
+		public abstract void invoke(double value) throws Exception;
+
+	}
+
+	/**
+	 * A {@code MethodHandler} is a handler that calls an annotated method on the listener
+	 * that it was registered with.
+	 */
+	private static class MethodHandler extends Handler {
+
+		/**
+		 * The arguments that are passed to every handler method.
+		 */
+		private static final Object[] NO_ARGUMENTS = new Object[0];
+
+		/**
+		 * The method to call.
+		 */
+		private final Method method;
+
+		/**
+		 * The listener to call the method on.
+		 */
+		private final JoystickListener instance;
+
+		/**
+		 * Whether the method takes the value of the axis as a parameter.
+		 */
+		private final boolean takesValue;
+
+		/**
+		 * The argument array that is passed to the method if it takes the value of the
+		 * axis. A handler is only ever invoked on the one thread that its dispatch mode
+		 * uses, so the array can be reused for every call.
+		 */
+		private final Object[] arguments;
+
+		/**
+		 * The value that is boxed in {@link #arguments}.
+		 */
+		private double boxedValue;
+
+		/**
+		 * Constructs a new {@code MethodHandler}. The access check of the method is
+		 * disabled here, if the security manager allows it, so it is not repeated on
+		 * every call.
+		 *
+		 * @param method the method to call.
+		 * @param instance the listener to call the method on.
+		 */
+		public MethodHandler(Method method, JoystickListener instance) {
+			this.method = method;
+			this.instance = instance;
+			this.takesValue = method.getParameterTypes().length == 1;
+			this.arguments = new Object[1];
+			try {
+				this.method.setAccessible(true);
+			} catch (SecurityException e) {
+				// the access check will be done on every call instead
+			}
+		}
+
+		@Override
+		public void invoke(double value) throws Exception {
+			if (this.takesValue) {
+				Object[] arguments = this.arguments;
+				if (arguments[0] == null || value != this.boxedValue) {
+					arguments[0] = Double.valueOf(value);
+					this.boxedValue = value;
+				}
+				this.method.invoke(this.instance, arguments);
+			} else {
+				this.method.invoke(this.instance, MethodHandler.NO_ARGUMENTS);
+			}
+		}
+
+	}
+
+	/**
+	 * A {@code RunnableHandler} is a handler that runs a {@code Runnable} directly.
+	 */
+	private static class RunnableHandler extends Handler {
+
+		/**
+		 * The action to run.
+		 */
+		private final Runnable action;
+
+		/**
+		 * Constructs a new {@code RunnableHandler}.
+		 *
+		 * @param action the action to run.
+		 */
+		public RunnableHandler(Runnable action) {
+			this.action = action;
 		}
+
+		@Override
+		public void invoke(double value) {
+			this.action.run();
+		}
+
 	}
-	
+
 	/**
-	 * The {@code MonitorUpdateRunnable} class is run through the task scheduler, and is
-	 * used to continuously check the joystick for any changes.
+	 * A {@code QueuedHandler} is a handler that does not call its target directly, but
+	 * places an event in a queue, so the target is called later on another thread.
 	 */
-	private class MonitorUpdateRunnable implements Runnable {
+	private static class QueuedHandler extends Handler {
+
+		/**
+		 * The handler to call when the event is taken from the queue.
+		 */
+		private final Handler target;
+
+		/**
+		 * The queue to place events in.
+		 */
+		private final InputEventQueue queue;
+
+		/**
+		 * Constructs a new {@code QueuedHandler}.
+		 *
+		 * @param target the handler to call when the event is taken from the queue.
+		 * @param queue the queue to place events in.
+		 */
+		public QueuedHandler(Handler target, InputEventQueue queue) {
+			this.target = target;
+			this.queue = queue;
+		}
+
+		@Override
+		public void invoke(double value) {
+			this.queue.offer(this.target, value);
+		}
+
+	}
+
+	/**
+	 * An {@code AxisListenerHandler} is a handler that tells an {@code AxisListener} about
+	 * the new value of an axis.
+	 */
+	private static class AxisListenerHandler extends Handler {
+
+		/**
+		 * The axis that the listener is told about.
+		 */
+		private final JoystickAxis axis;
+
+		/**
+		 * The listener to tell.
+		 */
+		private final AxisListener listener;
+
+		/**
+		 * Constructs a new {@code AxisListenerHandler}.
+		 *
+		 * @param axis the axis that the listener is told about.
+		 * @param listener the listener to tell.
+		 */
+		public AxisListenerHandler(JoystickAxis axis, AxisListener listener) {
+			this.axis = axis;
+			this.listener = listener;
+		}
+
+		@Override
+		public void invoke(double value) {
+			this.listener.axisChanged(this.axis, value);
+		}
+
+	}
+
+	/**
+	 * A {@code ButtonBinding} connects a handler to a button or a combination of buttons,
+	 * for the press types that are not simple edges. It keeps the times that it needs to
+	 * find holds, repeats and double taps. A combination is active while all of its
+	 * buttons are held down.
+	 * <p>
+	 * The state of a binding is only changed by the thread that runs the monitor.
+	 */
+	private static final class ButtonBinding {
+
+		/**
+		 * The handler to call.
+		 */
+		private final Handler handler;
+
+		/**
+		 * The mask of the buttons that must be held down.
+		 */
+		private final int mask;
+
+		/**
+		 * The type of press that the handler is called for.
+		 */
+		private final PressType type;
+
+		/**
+		 * The hold time, in nanoseconds.
+		 */
+		private final long holdTime;
+
+		/**
+		 * The repeat interval, in nanoseconds.
+		 */
+		private final long repeatInterval;
+
+		/**
+		 * The double-tap time, in nanoseconds.
+		 */
+		private final long doubleTapTime;
+
+		/**
+		 * Whether all of the buttons are held down.
+		 */
+		private boolean active;
+
+		/**
+		 * Whether the current press can still cause a hold or a repeat. This is false for
+		 * a press that started before the binding was registered, and for a press that
+		 * has already caused its hold.
+		 */
+		private boolean armed;
+
+		/**
+		 * The time that the next hold or repeat is due.
+		 */
+		private long dueTime;
+
+		/**
+		 * Whether the last press could be the first press of a double tap.
+		 */
+		private boolean tapped;
+
+		/**
+		 * The time of the last press, if {@link #tapped} is true.
+		 */
+		private long tapTime;
+
+		/**
+		 * Constructs a new {@code ButtonBinding}.
+		 *
+		 * @param handler the handler to call.
+		 * @param mask the mask of the buttons that must be held down.
+		 * @param type the type of press that the handler is called for.
+		 * @param holdTime the hold time, in milliseconds.
+		 * @param repeatInterval the repeat interval, in milliseconds.
+		 * @param doubleTapTime the double-tap time, in milliseconds.
+		 * @param buttons the mask of the buttons that are currently held down.
+		 * @param now the current time, as given by {@code System.nanoTime()}.
+		 * @throws IllegalArgumentException if any of the times are negative, or the
+		 * repeat interval is zero.
+		 */
+		public ButtonBinding(Handler handler, int mask, PressType type, long holdTime,
+				long repeatInterval, long doubleTapTime, int buttons, long now) {
+			if (holdTime < 0 || repeatInterval <= 0 || doubleTapTime < 0) {
+				throw new IllegalArgumentException("Invalid button timing");
+			}
+			this.handler = handler;
+			this.mask = mask;
+			this.type = type;
+			this.holdTime = holdTime * 1000000;
+			this.repeatInterval = repeatInterval * 1000000;
+			this.doubleTapTime = doubleTapTime * 1000000;
+			this.active = (buttons & mask) == mask;
+			this.dueTime = now;
+		}
+
+		/**
+		 * Updates this binding with the current state of the buttons.
+		 *
+		 * @param buttons the mask of the buttons that are held down.
+		 * @param now the current time, as given by {@code System.nanoTime()}.
+		 * @return {@code true} if the handler should be called, or {@code false} otherwise.
+		 */
+		public boolean update(int buttons, long now) {
+			boolean down = (buttons & this.mask) == this.mask;
+			if (down && !this.active) {
+				this.active = true;
+				this.armed = true;
+				this.dueTime = now + this.holdTime;
+				return this.pressed(now);
+			}
+			if (!down && this.active) {
+				this.active = false;
+				this.armed = false;
+				return this.type == PressType.RELEASE;
+			}
+			if (down && this.armed && now - this.dueTime >= 0) {
+				if (this.type == PressType.HOLD) {
+					this.armed = false;
+					return true;
+				}
+				if (this.type == PressType.REPEAT) {
+					this.dueTime += this.repeatInterval;
+					if (now - this.dueTime >= 0) {
+						this.dueTime = now + this.repeatInterval;
+					}
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Handles the buttons of this binding becoming held down.
+		 *
+		 * @param now the current time, as given by {@code System.nanoTime()}.
+		 * @return {@code true} if the handler should be called, or {@code false} otherwise.
+		 */
+		private boolean pressed(long now) {
+			switch (this.type) {
+				case PRESS:
+				case REPEAT:
+					return true;
+				case DOUBLE_TAP:
+					if (this.tapped && now - this.tapTime <= this.doubleTapTime) {
+						this.tapped = false;
+						return true;
+					}
+					this.tapped = true;
+					this.tapTime = now;
+					return false;
+				default:
+					return false;
+			}
+		}
+
+	}
+
+	/**
+	 * An {@code AxisBinding} connects a handler to an analog axis, and keeps the state
+	 * that is needed to decide when the handler should be called. A binding either reports
+	 * changes of at least a minimum size, or reports crossings of a threshold.
+	 * <p>
+	 * The state of a binding is only changed by the thread that runs the monitor.
+	 */
+	private static final class AxisBinding {
+
+		/**
+		 * The handler to call.
+		 */
+		private final Handler handler;
+
+		/**
+		 * The smallest change that should be reported, if this binding has no threshold.
+		 */
+		private final double minDelta;
+
+		/**
+		 * The threshold of this binding, made positive, or {@code NaN} if this binding
+		 * reports changes instead.
+		 */
+		private final double threshold;
+
+		/**
+		 * The direction that the axis must move to reach the threshold, either 1 or -1.
+		 */
+		private final double direction;
+
+		/**
+		 * The distance past the threshold that releases the axis.
+		 */
+		private final double hysteresis;
+
+		/**
+		 * The type of crossing that the handler is called for.
+		 */
+		private final PressType type;
+
+		/**
+		 * The value that was last reported to the handler.
+		 */
+		private double lastValue;
+
+		/**
+		 * Whether the axis is currently past the threshold.
+		 */
+		private boolean pressed;
+
+		/**
+		 * Constructs a new {@code AxisBinding}.
+		 *
+		 * @param handler the handler to call.
+		 * @param minDelta the smallest change that should be reported.
+		 * @param threshold the threshold, or {@code NaN} to report changes.
+		 * @param hysteresis the distance past the threshold that releases the axis.
+		 * @param type the type of crossing that the handler is called for.
+		 * @param value the current value of the axis.
+		 */
+		private AxisBinding(Handler handler, double minDelta, double threshold,
+				double hysteresis, PressType type, double value) {
+			this.handler = handler;
+			this.minDelta = minDelta;
+			this.direction = threshold < 0 ? -1 : 1;
+			this.threshold = Math.abs(threshold);
+			this.hysteresis = hysteresis;
+			this.type = type;
+			this.lastValue = value;
+			this.pressed = value * this.direction >= this.threshold;
+		}
+
+		/**
+		 * Creates a binding that reports changes of at least the given size.
+		 *
+		 * @param handler the handler to call.
+		 * @param minDelta the smallest change that should be reported.
+		 * @param value the current value of the axis.
+		 * @return the new binding.
+		 * @throws IllegalArgumentException if {@code minDelta} is negative or not a
+		 * number.
+		 */
+		public static AxisBinding change(Handler handler, double minDelta, double value) {
+			if (!(minDelta >= 0)) {
+				throw new IllegalArgumentException("Minimum delta must not be negative: "
+						+ minDelta);
+			}
+			return new AxisBinding(handler, minDelta, Double.NaN, 0, PressType.PRESS,
+					value);
+		}
+
+		/**
+		 * Creates a binding that reports crossings of the given threshold.
+		 *
+		 * @param handler the handler to call.
+		 * @param threshold the value at which the axis is pressed.
+		 * @param hysteresis the distance past the threshold that releases the axis.
+		 * @param type the type of crossing that the handler is called for.
+		 * @param value the current value of the axis.
+		 * @return the new binding.
+		 * @throws IllegalArgumentException if the threshold is zero or not a number, the
+		 * hysteresis is negative, or the type is not {@code PRESS} or {@code RELEASE}.
+		 */
+		public static AxisBinding threshold(Handler handler, double threshold,
+				double hysteresis, PressType type, double value) {
+			if (threshold == 0 || Double.isNaN(threshold)) {
+				throw new IllegalArgumentException("Invalid axis threshold: " + threshold);
+			}
+			if (!(hysteresis >= 0)) {
+				throw new IllegalArgumentException("Hysteresis must not be negative: "
+						+ hysteresis);
+			}
+			if (!JoystickMonitor.isEdge(type)) {
+				throw new IllegalArgumentException("Axis thresholds only support PRESS "
+						+ "and RELEASE: " + type);
+			}
+			return new AxisBinding(handler, 0, threshold, hysteresis, type, value);
+		}
+
+		/**
+		 * Updates this binding with a new value of the axis.
+		 *
+		 * @param value the new value of the axis.
+		 * @return {@code true} if the handler should be called, or {@code false} otherwise.
+		 */
+		public boolean update(double value) {
+			if (Double.isNaN(this.threshold)) {
+				return this.updateChange(value);
+			}
+			double v = value * this.direction;
+			if (!this.pressed && v >= this.threshold) {
+				this.pressed = true;
+				return this.type == PressType.PRESS;
+			}
+			if (this.pressed && v < this.threshold - this.hysteresis) {
+				this.pressed = false;
+				return this.type == PressType.RELEASE;
+			}
+			return false;
+		}
+
+		/**
+		 * Updates a binding that reports changes. A change is reported if it is at least
+		 * the minimum size, or if the axis has reached its rest position or the end of its
+		 * range, so that the final position of the axis is never lost to the filter.
+		 *
+		 * @param value the new value of the axis.
+		 * @return {@code true} if the change should be reported, or {@code false}
+		 * otherwise.
+		 */
+		private boolean updateChange(double value) {
+			if (value == this.lastValue) {
+				return false;
+			}
+			if (Math.abs(value - this.lastValue) >= this.minDelta || value == 0
+					|| Math.abs(value) >= 1) {
+				this.lastValue = value;
+				return true;
+			}
+			return false;
+		}
+
+	}
+
+	/**
+	 * The {@code HandlerThread} calls the handlers of the events that are queued for it,
+	 * and sleeps while there are none. It is woken by the monitor when it queues an event.
+	 */
+	private class HandlerThread extends Thread {
+
+		/**
+		 * The queue of events to handle.
+		 */
+		private final InputEventQueue queue;
+
+		/**
+		 * Whether this thread has been asked to stop.
+		 */
+		private volatile boolean stopRequested;
+
+		/**
+		 * Constructs a new {@code HandlerThread}.
+		 *
+		 * @param queue the queue of events to handle.
+		 */
+		public HandlerThread(InputEventQueue queue) {
+			super("JoystickMonitor " + JoystickMonitor.this.joystick + " handler");
+			this.queue = queue;
+			this.setDaemon(true);
+		}
+
+		/**
+		 * Asks this thread to stop after the handler that it is currently calling.
+		 */
+		public void requestStop() {
+			this.stopRequested = true;
+			LockSupport.unpark(this);
+		}
 
 		@Override
 		public void run() {
-			JoystickMonitor.this.runHandlers();
+			while (!this.stopRequested) {
+				if (this.queue.drain(JoystickMonitor.this) == 0) {
+					LockSupport.park(this);
+				}
+			}
 		}
 
 	}
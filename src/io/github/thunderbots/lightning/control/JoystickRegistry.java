@@ -0,0 +1,201 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * A {@code JoystickRegistry} keeps every gamepad that is used by an op mode, with the
+ * {@code JoystickMonitor} of each one, indexed by the ID of the joystick. IDs start at 1,
+ * in the order that the gamepads are registered, to match the {@code joystick} values of
+ * {@link ButtonHandler} and the other handler annotations.
+ * <p>
+ * The registry is polled by a single task, given by {@link #getPollingTask()}, which
+ * captures a new snapshot of every gamepad and then runs every monitor, in one pass. The
+ * arrays of gamepads and monitors are replaced, never modified, when a gamepad is
+ * registered, so they can be read by the polling task without locking.
+ *
+ * @author Zach Ohara
+ */
+public class JoystickRegistry {
+
+	/**
+	 * The sources of the registered gamepads. The source with ID {@code n} is at index
+	 * {@code n - 1}.
+	 */
+	private volatile GamepadSource[] sources;
+
+	/**
+	 * The monitors of the registered gamepads, at the same indices as {@link #sources}.
+	 */
+	private volatile JoystickMonitor[] monitors;
+
+	/**
+	 * The task that polls this registry.
+	 */
+	private final Runnable pollingTask;
+
+	/**
+	 * Constructs a new, empty {@code JoystickRegistry}.
+	 */
+	public JoystickRegistry() {
+		this.sources = new GamepadSource[0];
+		this.monitors = new JoystickMonitor[0];
+		this.pollingTask = new PollingRunnable();
+	}
+
+	/**
+	 * Registers the given gamepad, and creates a monitor for it.
+	 *
+	 * @param gamepad the gamepad to register.
+	 * @return the ID of the gamepad.
+	 */
+	public synchronized int register(Gamepad gamepad) {
+		int id = this.sources.length + 1;
+		GamepadSource source = new GamepadSource(gamepad);
+		JoystickMonitor monitor = new JoystickMonitor(id, source);
+		GamepadSource[] newSources = new GamepadSource[id];
+		System.arraycopy(this.sources, 0, newSources, 0, id - 1);
+		newSources[id - 1] = source;
+		JoystickMonitor[] newMonitors = new JoystickMonitor[id];
+		System.arraycopy(this.monitors, 0, newMonitors, 0, id - 1);
+		newMonitors[id - 1] = monitor;
+		this.monitors = newMonitors;
+		this.sources = newSources;
+		return id;
+	}
+
+	/**
+	 * Gets the number of registered gamepads.
+	 *
+	 * @return the number of registered gamepads.
+	 */
+	public int size() {
+		return this.sources.length;
+	}
+
+	/**
+	 * Gets the most recent snapshot of the joystick with the given ID.
+	 *
+	 * @param id the ID of the joystick.
+	 * @return the most recent snapshot of the joystick.
+	 * @throws IllegalArgumentException if no joystick has the given ID.
+	 */
+	public Joystick getJoystick(int id) {
+		GamepadSource[] sources = this.sources;
+		JoystickRegistry.checkId(id, sources.length);
+		return sources[id - 1].getJoystick();
+	}
+
+	/**
+	 * Gets the monitor of the joystick with the given ID.
+	 *
+	 * @param id the ID of the joystick.
+	 * @return the monitor of the joystick.
+	 * @throws IllegalArgumentException if no joystick has the given ID.
+	 */
+	public JoystickMonitor getMonitor(int id) {
+		JoystickMonitor[] monitors = this.monitors;
+		JoystickRegistry.checkId(id, monitors.length);
+		return monitors[id - 1];
+	}
+
+	/**
+	 * Gets the task that captures new snapshots of every gamepad and runs every monitor.
+	 * This should be registered with the task scheduler before any task that reads the
+	 * joysticks.
+	 *
+	 * @return the polling task of this registry.
+	 */
+	public Runnable getPollingTask() {
+		return this.pollingTask;
+	}
+
+	/**
+	 * Calls the handlers of every event that is waiting to be handled on the op mode
+	 * thread, for every monitor. This must only be called by the op mode thread.
+	 *
+	 * @return the number of events that were handled.
+	 * @see JoystickMonitor#dispatchEvents()
+	 */
+	public int dispatchEvents() {
+		JoystickMonitor[] monitors = this.monitors;
+		int count = 0;
+		for (int i = 0; i < monitors.length; i++) {
+			count += monitors[i].dispatchEvents();
+		}
+		return count;
+	}
+
+	/**
+	 * Stops the handler threads of every monitor.
+	 *
+	 * @see JoystickMonitor#shutdown()
+	 */
+	public void shutdown() {
+		JoystickMonitor[] monitors = this.monitors;
+		for (int i = 0; i < monitors.length; i++) {
+			monitors[i].shutdown();
+		}
+	}
+
+	/**
+	 * Captures a new snapshot of every gamepad, and then runs every monitor.
+	 */
+	private void poll() {
+		GamepadSource[] sources = this.sources;
+		JoystickMonitor[] monitors = this.monitors;
+		for (int i = 0; i < sources.length; i++) {
+			sources[i].update();
+		}
+		for (int i = 0; i < monitors.length && i < sources.length; i++) {
+			monitors[i].update();
+		}
+	}
+
+	/**
+	 * Checks that the given ID is the ID of a registered joystick.
+	 *
+	 * @param id the ID to check.
+	 * @param size the number of registered joysticks.
+	 * @throws IllegalArgumentException if the ID is not valid.
+	 */
+	private static void checkId(int id, int size) {
+		if (id < 1 || id > size) {
+			throw new IllegalArgumentException("No joystick with ID " + id);
+		}
+	}
+
+	/**
+	 * The {@code PollingRunnable} class is run through the task scheduler, and polls every
+	 * registered gamepad.
+	 */
+	private class PollingRunnable implements Runnable {
+
+		@Override
+		public void run() {
+			JoystickRegistry.this.poll();
+		}
+
+		@Override
+		public String toString() {
+			return "Joystick polling";
+		}
+
+	}
+
+}
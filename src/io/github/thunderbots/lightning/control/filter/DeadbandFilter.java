@@ -0,0 +1,61 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.filter;
+
+/**
+ * A {@code DeadbandFilter} outputs zero for every input that is close to zero. Inputs
+ * outside the deadband are scaled so that the output still reaches 1 at an input of 1,
+ * and rises smoothly from zero at the edge of the deadband, instead of jumping.
+ *
+ * @author Zach Ohara
+ */
+public class DeadbandFilter implements InputFilter {
+
+	/**
+	 * The largest magnitude of an input that gives an output of zero.
+	 */
+	private final double width;
+
+	/**
+	 * Constructs a new {@code DeadbandFilter}.
+	 *
+	 * @param width the largest magnitude of an input that gives an output of zero.
+	 * @throws IllegalArgumentException if the width is not at least 0 and less than 1.
+	 */
+	public DeadbandFilter(double width) {
+		if (!(width >= 0 && width < 1)) {
+			throw new IllegalArgumentException("Width must be at least 0 and less than 1: "
+					+ width);
+		}
+		this.width = width;
+	}
+
+	@Override
+	public double calculate(double input, double dt) {
+		if (Math.abs(input) <= this.width) {
+			return 0;
+		}
+		double scaled = (Math.abs(input) - this.width) / (1 - this.width);
+		return input < 0 ? -scaled : scaled;
+	}
+
+	@Override
+	public void reset() {
+
+	}
+
+}
@@ -0,0 +1,101 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.filter;
+
+/**
+ * A {@code FilterChain} passes its input through a list of filters, in order. It also
+ * keeps track of the time between samples, so it can be used directly on a stream of
+ * samples with {@link #apply(double)}.
+ * <p>
+ * The time between samples is capped at {@link #MAX_TIME_STEP}, so a long pause, such as
+ * the time between initializing and starting an op mode, cannot let a step change pass
+ * straight through a rate limit.
+ *
+ * @author Zach Ohara
+ */
+public class FilterChain implements InputFilter {
+
+	/**
+	 * The longest time between samples that is passed to the filters, in seconds.
+	 */
+	public static final double MAX_TIME_STEP = 0.1;
+
+	/**
+	 * The number of nanoseconds in one second.
+	 */
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	/**
+	 * The filters of this chain, in the order that they are applied.
+	 */
+	private final InputFilter[] filters;
+
+	/**
+	 * The time of the latest sample given to {@link #apply(double)}, as given by
+	 * {@code System.nanoTime()}.
+	 */
+	private long lastTime;
+
+	/**
+	 * Whether {@link #apply(double)} has been called since the chain was created or reset.
+	 */
+	private boolean started;
+
+	/**
+	 * Constructs a new {@code FilterChain}.
+	 *
+	 * @param filters the filters of the chain, in the order that they should be applied.
+	 */
+	public FilterChain(InputFilter... filters) {
+		this.filters = filters.clone();
+	}
+
+	/**
+	 * Filters the next sample of the stream, using the time since the previous call to
+	 * this method as the time between samples.
+	 *
+	 * @param input the next sample.
+	 * @return the filtered value.
+	 */
+	public double apply(double input) {
+		long now = System.nanoTime();
+		double dt = this.started ? (now - this.lastTime) / FilterChain.NANOS_PER_SECOND : 0;
+		this.lastTime = now;
+		this.started = true;
+		return this.calculate(input, dt);
+	}
+
+	@Override
+	public double calculate(double input, double dt) {
+		if (dt > FilterChain.MAX_TIME_STEP) {
+			dt = FilterChain.MAX_TIME_STEP;
+		}
+		for (int i = 0; i < this.filters.length; i++) {
+			input = this.filters[i].calculate(input, dt);
+		}
+		return input;
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < this.filters.length; i++) {
+			this.filters[i].reset();
+		}
+		this.started = false;
+	}
+
+}
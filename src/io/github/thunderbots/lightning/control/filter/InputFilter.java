@@ -0,0 +1,44 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.filter;
+
+/**
+ * An {@code InputFilter} transforms a stream of input samples, such as the forward power
+ * from a control layout. A filter may keep state from one sample to the next, so a
+ * separate instance should be used for each stream.
+ *
+ * @author Zach Ohara
+ * @see FilterChain
+ */
+public interface InputFilter {
+
+	/**
+	 * Filters the next sample of the stream.
+	 *
+	 * @param input the next sample.
+	 * @param dt the time since the previous sample, in seconds.
+	 * @return the filtered value.
+	 */
+	public double calculate(double input, double dt);
+
+	/**
+	 * Resets the state of the filter, as if no samples had been filtered, with the stream
+	 * at rest.
+	 */
+	public void reset();
+
+}
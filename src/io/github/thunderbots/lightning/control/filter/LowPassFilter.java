@@ -0,0 +1,67 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.filter;
+
+/**
+ * A {@code LowPassFilter} is a first-order low-pass filter, which smooths out quick
+ * changes of its input. After a step change of the input, the output covers about 63% of
+ * the step in one time constant.
+ *
+ * @author Zach Ohara
+ */
+public class LowPassFilter implements InputFilter {
+
+	/**
+	 * The time constant of the filter, in seconds.
+	 */
+	private final double timeConstant;
+
+	/**
+	 * The latest output of the filter.
+	 */
+	private double output;
+
+	/**
+	 * Constructs a new {@code LowPassFilter}.
+	 *
+	 * @param timeConstant the time constant of the filter, in seconds.
+	 * @throws IllegalArgumentException if the time constant is negative.
+	 */
+	public LowPassFilter(double timeConstant) {
+		if (!(timeConstant >= 0)) {
+			throw new IllegalArgumentException("Time constant must not be negative: "
+					+ timeConstant);
+		}
+		this.timeConstant = timeConstant;
+	}
+
+	@Override
+	public double calculate(double input, double dt) {
+		if (this.timeConstant == 0) {
+			this.output = input;
+		} else {
+			this.output += dt / (this.timeConstant + dt) * (input - this.output);
+		}
+		return this.output;
+	}
+
+	@Override
+	public void reset() {
+		this.output = 0;
+	}
+
+}
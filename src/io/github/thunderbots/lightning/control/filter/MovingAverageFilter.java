@@ -0,0 +1,82 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.filter;
+
+/**
+ * A {@code MovingAverageFilter} outputs the average of the latest samples of its input.
+ * The samples are kept in a ring, and the sum is updated as samples enter and leave it,
+ * so the cost of a sample does not depend on the size of the window.
+ *
+ * @author Zach Ohara
+ */
+public class MovingAverageFilter implements InputFilter {
+
+	/**
+	 * The latest samples, as a ring.
+	 */
+	private final double[] samples;
+
+	/**
+	 * The index in the ring that the next sample will be written to.
+	 */
+	private int index;
+
+	/**
+	 * The sum of every sample in the ring.
+	 */
+	private double sum;
+
+	/**
+	 * Constructs a new {@code MovingAverageFilter}.
+	 *
+	 * @param size the number of samples to average.
+	 * @throws IllegalArgumentException if the size is not positive.
+	 */
+	public MovingAverageFilter(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Size must be positive: " + size);
+		}
+		this.samples = new double[size];
+	}
+
+	@Override
+	public double calculate(double input, double dt) {
+		this.sum += input - this.samples[this.index];
+		this.samples[this.index] = input;
+		this.index++;
+		if (this.index == this.samples.length) {
+			this.index = 0;
+			// recalculate the sum once per pass, so rounding errors cannot build up
+			double exact = 0;
+			for (int i = 0; i < this.samples.length; i++) {
+				exact += this.samples[i];
+			}
+			this.sum = exact;
+		}
+		return this.sum / this.samples.length;
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < this.samples.length; i++) {
+			this.samples[i] = 0;
+		}
+		this.index = 0;
+		this.sum = 0;
+	}
+
+}
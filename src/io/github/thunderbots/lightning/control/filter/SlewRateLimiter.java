@@ -0,0 +1,95 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.filter;
+
+/**
+ * A {@code SlewRateLimiter} limits how quickly its output can change. Step changes of the
+ * input become ramps, which keeps the current drawn by the motors within limits when the
+ * driver pushes a stick to the end of its range.
+ * <p>
+ * The output can be allowed to move away from zero at a different rate than it moves
+ * toward zero, so the robot can accelerate gently but still stop quickly.
+ *
+ * @author Zach Ohara
+ */
+public class SlewRateLimiter implements InputFilter {
+
+	/**
+	 * The largest rate, in units per second, at which the output can move away from zero.
+	 */
+	private final double increaseRate;
+
+	/**
+	 * The largest rate, in units per second, at which the output can move toward zero.
+	 */
+	private final double decreaseRate;
+
+	/**
+	 * The latest output of the limiter.
+	 */
+	private double output;
+
+	/**
+	 * Constructs a new {@code SlewRateLimiter} with the same rate in both directions.
+	 *
+	 * @param rate the largest rate of change of the output, in units per second.
+	 */
+	public SlewRateLimiter(double rate) {
+		this(rate, rate);
+	}
+
+	/**
+	 * Constructs a new {@code SlewRateLimiter}.
+	 *
+	 * @param increaseRate the largest rate, in units per second, at which the output can
+	 * move away from zero.
+	 * @param decreaseRate the largest rate, in units per second, at which the output can
+	 * move toward zero.
+	 * @throws IllegalArgumentException if either rate is not positive.
+	 */
+	public SlewRateLimiter(double increaseRate, double decreaseRate) {
+		if (!(increaseRate > 0 && decreaseRate > 0)) {
+			throw new IllegalArgumentException("Slew rates must be positive");
+		}
+		this.increaseRate = increaseRate;
+		this.decreaseRate = decreaseRate;
+	}
+
+	@Override
+	public double calculate(double input, double dt) {
+		double change = input - this.output;
+		boolean increasing = this.output == 0 || (change > 0) == (this.output > 0);
+		double limit = (increasing ? this.increaseRate : this.decreaseRate) * dt;
+		if (change > limit) {
+			change = limit;
+		} else if (change < -limit) {
+			change = -limit;
+		}
+		double next = this.output + change;
+		if (!increasing && (next > 0) != (this.output > 0)) {
+			next = 0;
+		}
+		this.output = next;
+		return next;
+	}
+
+	@Override
+	public void reset() {
+		this.output = 0;
+	}
+
+}
@@ -0,0 +1,112 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.layout;
+
+import io.github.thunderbots.lightning.control.Joystick;
+
+/**
+ * A {@code CurvedControlLayout} is a {@code ControlLayout} that applies a
+ * {@link ResponseCurve} to each of the powers of another control layout. This can be used
+ * to add a response curve to any control layout. If the other layout is a
+ * {@code HolonomicControlLayout}, its strafe power is curved as well; otherwise the strafe
+ * power is always zero.
+ *
+ * @author Zach Ohara
+ */
+public class CurvedControlLayout implements HolonomicControlLayout {
+
+	/**
+	 * The control layout that the powers come from.
+	 */
+	private final ControlLayout layout;
+
+	/**
+	 * The curve that is applied to the forward power.
+	 */
+	private final ResponseCurve forwardCurve;
+
+	/**
+	 * The curve that is applied to the right strafe power.
+	 */
+	private final ResponseCurve rightCurve;
+
+	/**
+	 * The curve that is applied to the clockwise power.
+	 */
+	private final ResponseCurve clockwiseCurve;
+
+	/**
+	 * Constructs a new {@code CurvedControlLayout} that applies the same curve to every
+	 * power.
+	 *
+	 * @param layout the control layout that the powers come from.
+	 * @param curve the curve to apply to every power.
+	 */
+	public CurvedControlLayout(ControlLayout layout, ResponseCurve curve) {
+		this(layout, curve, curve, curve);
+	}
+
+	/**
+	 * Constructs a new {@code CurvedControlLayout} that applies a separate curve to the
+	 * forward and clockwise powers. The strafe power, if there is one, is not curved.
+	 *
+	 * @param layout the control layout that the powers come from.
+	 * @param forwardCurve the curve to apply to the forward power.
+	 * @param clockwiseCurve the curve to apply to the clockwise power.
+	 */
+	public CurvedControlLayout(ControlLayout layout, ResponseCurve forwardCurve,
+			ResponseCurve clockwiseCurve) {
+		this(layout, forwardCurve, ResponseCurve.linear(), clockwiseCurve);
+	}
+
+	/**
+	 * Constructs a new {@code CurvedControlLayout} that applies a separate curve to each
+	 * power.
+	 *
+	 * @param layout the control layout that the powers come from.
+	 * @param forwardCurve the curve to apply to the forward power.
+	 * @param rightCurve the curve to apply to the right strafe power.
+	 * @param clockwiseCurve the curve to apply to the clockwise power.
+	 */
+	public CurvedControlLayout(ControlLayout layout, ResponseCurve forwardCurve,
+			ResponseCurve rightCurve, ResponseCurve clockwiseCurve) {
+		this.layout = layout;
+		this.forwardCurve = forwardCurve;
+		this.rightCurve = rightCurve;
+		this.clockwiseCurve = clockwiseCurve;
+	}
+
+	@Override
+	public double getForwardPower(Joystick joy) {
+		return this.forwardCurve.apply(this.layout.getForwardPower(joy));
+	}
+
+	@Override
+	public double getRightStrafePower(Joystick joy) {
+		if (!(this.layout instanceof HolonomicControlLayout)) {
+			return 0;
+		}
+		return this.rightCurve.apply(
+				((HolonomicControlLayout) this.layout).getRightStrafePower(joy));
+	}
+
+	@Override
+	public double getClockwisePower(Joystick joy) {
+		return this.clockwiseCurve.apply(this.layout.getClockwisePower(joy));
+	}
+
+}
@@ -0,0 +1,120 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.layout;
+
+import io.github.thunderbots.lightning.control.Joystick;
+import io.github.thunderbots.lightning.control.filter.FilterChain;
+
+/**
+ * A {@code FilteredControlLayout} is a {@code ControlLayout} that passes each of the
+ * powers of another control layout through a {@link FilterChain}. This sits between the
+ * control layout and the drive system, and can be used, for example, to limit how
+ * quickly the robot accelerates.
+ * <p>
+ * The filters keep state from one loop to the next, so each power must have its own
+ * chain, and the powers should be read once per loop. If the other layout is a
+ * {@code HolonomicControlLayout}, its strafe power is filtered as well; otherwise the
+ * strafe power is always zero.
+ *
+ * @author Zach Ohara
+ */
+public class FilteredControlLayout implements HolonomicControlLayout {
+
+	/**
+	 * The control layout that the powers come from.
+	 */
+	private final ControlLayout layout;
+
+	/**
+	 * The filters that are applied to the forward power.
+	 */
+	private final FilterChain forwardFilter;
+
+	/**
+	 * The filters that are applied to the right strafe power.
+	 */
+	private final FilterChain rightFilter;
+
+	/**
+	 * The filters that are applied to the clockwise power.
+	 */
+	private final FilterChain clockwiseFilter;
+
+	/**
+	 * Constructs a new {@code FilteredControlLayout} that filters the forward and
+	 * clockwise powers. The strafe power, if there is one, is not filtered.
+	 *
+	 * @param layout the control layout that the powers come from.
+	 * @param forwardFilter the filters to apply to the forward power.
+	 * @param clockwiseFilter the filters to apply to the clockwise power.
+	 * @throws IllegalArgumentException if the same chain is given for both powers.
+	 */
+	public FilteredControlLayout(ControlLayout layout, FilterChain forwardFilter,
+			FilterChain clockwiseFilter) {
+		this(layout, forwardFilter, new FilterChain(), clockwiseFilter);
+	}
+
+	/**
+	 * Constructs a new {@code FilteredControlLayout} that filters every power.
+	 *
+	 * @param layout the control layout that the powers come from.
+	 * @param forwardFilter the filters to apply to the forward power.
+	 * @param rightFilter the filters to apply to the right strafe power.
+	 * @param clockwiseFilter the filters to apply to the clockwise power.
+	 * @throws IllegalArgumentException if the same chain is given for more than one power.
+	 */
+	public FilteredControlLayout(ControlLayout layout, FilterChain forwardFilter,
+			FilterChain rightFilter, FilterChain clockwiseFilter) {
+		if (forwardFilter == rightFilter || forwardFilter == clockwiseFilter
+				|| rightFilter == clockwiseFilter) {
+			throw new IllegalArgumentException("Each power must have its own filter chain");
+		}
+		this.layout = layout;
+		this.forwardFilter = forwardFilter;
+		this.rightFilter = rightFilter;
+		this.clockwiseFilter = clockwiseFilter;
+	}
+
+	@Override
+	public double getForwardPower(Joystick joy) {
+		return this.forwardFilter.apply(this.layout.getForwardPower(joy));
+	}
+
+	@Override
+	public double getRightStrafePower(Joystick joy) {
+		double right = 0;
+		if (this.layout instanceof HolonomicControlLayout) {
+			right = ((HolonomicControlLayout) this.layout).getRightStrafePower(joy);
+		}
+		return this.rightFilter.apply(right);
+	}
+
+	@Override
+	public double getClockwisePower(Joystick joy) {
+		return this.clockwiseFilter.apply(this.layout.getClockwisePower(joy));
+	}
+
+	/**
+	 * Resets every filter, as if the robot were at rest.
+	 */
+	public void reset() {
+		this.forwardFilter.reset();
+		this.rightFilter.reset();
+		this.clockwiseFilter.reset();
+	}
+
+}
@@ -0,0 +1,42 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.layout;
+
+import io.github.thunderbots.lightning.control.Joystick;
+
+/**
+ * A {@code HolonomicControlLayout} is a {@code ControlLayout} that can also control
+ * sideways movement, for drive systems that can strafe, such as a
+ * {@link io.github.thunderbots.lightning.drive.MecanumDrive MecanumDrive}. The three powers
+ * are accepted together by
+ * {@link io.github.thunderbots.lightning.drive.DriveSystem#setMovement(double, double, double)
+ * DriveSystem.setMovement(forward, right, clockwise)}.
+ *
+ * @author Zach Ohara
+ */
+public interface HolonomicControlLayout extends ControlLayout {
+
+	/**
+	 * Gets the right strafe power that should be sent to the robot based on the current
+	 * state of the given joystick.
+	 *
+	 * @param joy the joystick to use for power calculations.
+	 * @return the right strafe power of the robot.
+	 */
+	public double getRightStrafePower(Joystick joy);
+
+}
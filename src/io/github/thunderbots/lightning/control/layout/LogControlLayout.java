@@ -23,42 +23,24 @@ public class LogControlLayout extends DriveSpinControlLayout {
 	
 	private final static double JOYSTICK_LINEAR_WEIGHT = 2.5;
 
+	/**
+	 * The curve that is applied to the powers. This is a composite of an exponential curve
+	 * and a linear curve, and the weight of the linear curve in the final output is given
+	 * by {@link #JOYSTICK_LINEAR_WEIGHT}. The exponential equation can be seen
+	 * <a href="https://raw.githubusercontent.com/Thunderbots5604/2014-Code/master/Notebook/eqn%20raw.png">here</a>
+	 */
+	private final static ResponseCurve CURVE = ResponseCurve.composite(
+			ResponseCurve.exponential(Motor.MAX_POWER + 1), ResponseCurve.linear(),
+			JOYSTICK_LINEAR_WEIGHT);
+
 	@Override
 	public double getForwardPower(Joystick joy) {
-		return correctJoystickComposite(super.getForwardPower(joy));
+		return CURVE.apply(super.getForwardPower(joy));
 	}
 
 	@Override
 	public double getClockwisePower(Joystick joy) {
-		return correctJoystickComposite(super.getClockwisePower(joy));
-	}
-	
-	/**
-	 * Scales the input using an exponential equation.
-	 * The exponential equation can be seen
-	 * <a href="https://raw.githubusercontent.com/Thunderbots5604/2014-Code/master/Notebook/eqn%20raw.png">here</a>
-	 * @param in
-	 * @return
-	 */
-	private static double correctJoystickExponential(double in) {
-		double correctValue = Math.abs(in);
-		correctValue = Math.pow(Motor.MAX_POWER + 1, correctValue/Motor.MAX_POWER);
-		correctValue -= 1;
-		return Math.signum(in) * correctValue;
-	}
-	
-	/**
-	 * Scales the input using a composite exponential/linear equation.
-	 * The weight of the linear equation in the final output is given by
-	 * {@link #JOYSTICK_LINEAR_WEIGHT}.
-	 * 
-	 * @param in
-	 * @return
-	 */
-	private static double correctJoystickComposite(double in) {
-		double linear = in;
-		double exponential = correctJoystickExponential(in);
-		return (exponential + (JOYSTICK_LINEAR_WEIGHT * linear)) / (JOYSTICK_LINEAR_WEIGHT + 1);
+		return CURVE.apply(super.getClockwisePower(joy));
 	}
 
 }
@@ -28,7 +28,7 @@ import io.github.thunderbots.lightning.control.Joystick;
  *
  * @author Jake Ohara
  */
-public class MecanumControlLayout implements ControlLayout {
+public class MecanumControlLayout implements HolonomicControlLayout {
 
 	@Override
 	public double getForwardPower(Joystick joy) {
@@ -40,13 +40,7 @@ public class MecanumControlLayout implements ControlLayout {
 		return joy.rightStickX();
 	}
 
-	/**
-	 * Gets the right strafe power that should be sent to the robot based on the current
-	 * state of the given joystick.
-	 *
-	 * @param joy the joystick to use for power calculations.
-	 * @return the right strafe power of the robot.
-	 */
+	@Override
 	public double getRightStrafePower(Joystick joy) {
 		return joy.leftStickX();
 	}
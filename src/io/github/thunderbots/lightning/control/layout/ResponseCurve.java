@@ -0,0 +1,264 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.control.layout;
+
+/**
+ * A {@code ResponseCurve} maps a joystick input to an output power, to give the driver
+ * finer control near the rest position of a stick. Every curve maps 0 to 0, is symmetric
+ * about 0, and is defined for inputs between -1 and 1. Inputs beyond that range are
+ * treated as -1 or 1.
+ * <p>
+ * A curve is built once, when it is created, by sampling it into a fixed-size table.
+ * Applying a curve only looks up the two nearest entries in the table and interpolates
+ * between them, so it needs no transcendental math and allocates nothing, however
+ * expensive the shape of the curve is to calculate. With the table size used here, the
+ * error of the interpolation is far below the resolution of the joystick.
+ *
+ * @author Zach Ohara
+ * @see CurvedControlLayout
+ */
+public final class ResponseCurve {
+
+	/**
+	 * The number of intervals in the table of a curve.
+	 */
+	private static final int TABLE_SIZE = 256;
+
+	/**
+	 * The output of the curve at each of {@code TABLE_SIZE + 1} evenly spaced inputs from
+	 * 0 to 1.
+	 */
+	private final double[] table;
+
+	/**
+	 * Constructs a new {@code ResponseCurve} by sampling the given shape.
+	 *
+	 * @param shape the shape of the curve.
+	 */
+	private ResponseCurve(Shape shape) {
+		this.table = new double[ResponseCurve.TABLE_SIZE + 1];
+		for (int i = 0; i <= ResponseCurve.TABLE_SIZE; i++) {
+			this.table[i] = shape.evaluate((double) i / ResponseCurve.TABLE_SIZE);
+		}
+		this.table[0] = 0;
+	}
+
+	/**
+	 * Applies this curve to the given input.
+	 *
+	 * @param input the input, which should be between -1 and 1.
+	 * @return the output of the curve.
+	 */
+	public double apply(double input) {
+		double magnitude = Math.abs(input);
+		double output;
+		if (magnitude >= 1) {
+			output = this.table[ResponseCurve.TABLE_SIZE];
+		} else {
+			double position = magnitude * ResponseCurve.TABLE_SIZE;
+			int index = (int) position;
+			double low = this.table[index];
+			output = low + (this.table[index + 1] - low) * (position - index);
+		}
+		return input < 0 ? -output : output;
+	}
+
+	/**
+	 * Creates a curve whose output is the same as its input.
+	 *
+	 * @return a linear curve.
+	 */
+	public static ResponseCurve linear() {
+		return new ResponseCurve(new Shape() {
+			@Override
+			public double evaluate(double x) {
+				return x;
+			}
+		});
+	}
+
+	/**
+	 * Creates an exponential curve, {@code (base^x - 1) / (base - 1)}. A larger base gives
+	 * a flatter curve near the rest position and a steeper curve near the end of the
+	 * range.
+	 *
+	 * @param base the base of the exponential, which must be greater than 1.
+	 * @return an exponential curve.
+	 * @throws IllegalArgumentException if the base is not greater than 1.
+	 */
+	public static ResponseCurve exponential(final double base) {
+		if (!(base > 1)) {
+			throw new IllegalArgumentException("Base must be greater than 1: " + base);
+		}
+		return new ResponseCurve(new Shape() {
+			@Override
+			public double evaluate(double x) {
+				return (Math.pow(base, x) - 1) / (base - 1);
+			}
+		});
+	}
+
+	/**
+	 * Creates a cubic curve, {@code weight * x^3 + (1 - weight) * x}. A weight of 0 gives
+	 * a linear curve, and a weight of 1 gives a pure cubic curve.
+	 *
+	 * @param weight the weight of the cubic term, between 0 and 1.
+	 * @return a cubic curve.
+	 * @throws IllegalArgumentException if the weight is not between 0 and 1.
+	 */
+	public static ResponseCurve cubic(final double weight) {
+		if (!(weight >= 0 && weight <= 1)) {
+			throw new IllegalArgumentException("Weight must be between 0 and 1: " + weight);
+		}
+		return new ResponseCurve(new Shape() {
+			@Override
+			public double evaluate(double x) {
+				return weight * x * x * x + (1 - weight) * x;
+			}
+		});
+	}
+
+	/**
+	 * Creates a curve that is the weighted average of two other curves,
+	 * {@code (first + weight * second) / (1 + weight)}.
+	 *
+	 * @param first the first curve.
+	 * @param second the second curve.
+	 * @param weight the weight of the second curve, relative to the first curve.
+	 * @return the composite curve.
+	 * @throws IllegalArgumentException if the weight is negative.
+	 */
+	public static ResponseCurve composite(final ResponseCurve first,
+			final ResponseCurve second, final double weight) {
+		if (!(weight >= 0)) {
+			throw new IllegalArgumentException("Weight must not be negative: " + weight);
+		}
+		return new ResponseCurve(new Shape() {
+			@Override
+			public double evaluate(double x) {
+				return (first.apply(x) + weight * second.apply(x)) / (1 + weight);
+			}
+		});
+	}
+
+	/**
+	 * Creates a smooth curve through the given points. The curve passes through the
+	 * origin and every given point, and is a monotone cubic spline, so it never overshoots
+	 * between points. Inputs beyond the last point give the output of the last point.
+	 *
+	 * @param inputs the inputs of the points, strictly increasing and between 0 and 1.
+	 * @param outputs the outputs of the points, never decreasing and not negative.
+	 * @return a spline curve.
+	 * @throws IllegalArgumentException if the points are not valid.
+	 */
+	public static ResponseCurve spline(double[] inputs, double[] outputs) {
+		if (inputs.length != outputs.length || inputs.length == 0) {
+			throw new IllegalArgumentException("There must be the same number of inputs "
+					+ "and outputs, and at least one point");
+		}
+		boolean hasOrigin = inputs[0] == 0;
+		int count = hasOrigin ? inputs.length : inputs.length + 1;
+		final double[] x = new double[count];
+		final double[] y = new double[count];
+		System.arraycopy(inputs, 0, x, count - inputs.length, inputs.length);
+		System.arraycopy(outputs, 0, y, count - inputs.length, inputs.length);
+		y[0] = 0;
+		for (int i = 1; i < count; i++) {
+			if (!(x[i] > x[i - 1] && x[i] <= 1 && y[i] >= y[i - 1])) {
+				throw new IllegalArgumentException("Spline points must be increasing, "
+						+ "and inputs must be between 0 and 1");
+			}
+		}
+		final double[] slopes = ResponseCurve.monotoneSlopes(x, y);
+		return new ResponseCurve(new Shape() {
+			@Override
+			public double evaluate(double input) {
+				if (input >= x[x.length - 1]) {
+					return y[y.length - 1];
+				}
+				int i = 0;
+				while (input > x[i + 1]) {
+					i++;
+				}
+				double h = x[i + 1] - x[i];
+				double t = (input - x[i]) / h;
+				double t2 = t * t;
+				double t3 = t2 * t;
+				return (2 * t3 - 3 * t2 + 1) * y[i] + (t3 - 2 * t2 + t) * h * slopes[i]
+						+ (-2 * t3 + 3 * t2) * y[i + 1] + (t3 - t2) * h * slopes[i + 1];
+			}
+		});
+	}
+
+	/**
+	 * Calculates the slopes at the points of a monotone cubic spline, with the method of
+	 * Fritsch and Carlson.
+	 *
+	 * @param x the inputs of the points.
+	 * @param y the outputs of the points.
+	 * @return the slope of the spline at each point.
+	 */
+	private static double[] monotoneSlopes(double[] x, double[] y) {
+		int n = x.length;
+		double[] slopes = new double[n];
+		if (n < 2) {
+			return slopes;
+		}
+		double[] secants = new double[n - 1];
+		for (int i = 0; i < n - 1; i++) {
+			secants[i] = (y[i + 1] - y[i]) / (x[i + 1] - x[i]);
+		}
+		slopes[0] = secants[0];
+		slopes[n - 1] = secants[n - 2];
+		for (int i = 1; i < n - 1; i++) {
+			slopes[i] = (secants[i - 1] + secants[i]) / 2;
+		}
+		for (int i = 0; i < n - 1; i++) {
+			if (secants[i] == 0) {
+				slopes[i] = 0;
+				slopes[i + 1] = 0;
+				continue;
+			}
+			double a = slopes[i] / secants[i];
+			double b = slopes[i + 1] / secants[i];
+			double s = a * a + b * b;
+			if (s > 9) {
+				double tau = 3 / Math.sqrt(s);
+				slopes[i] = tau * a * secants[i];
+				slopes[i + 1] = tau * b * secants[i];
+			}
+		}
+		return slopes;
+	}
+
+	/**
+	 * A {@code Shape} is the exact form of a curve, which is sampled into the table of the
+	 * curve.
+	 */
+	private abstract static class Shape {
+
+		/**
+		 * Calculates the output of the curve for the given input.
+		 *
+		 * @param x the input, between 0 and 1.
+		 * @return the output of the curve.
+		 */
+		public abstract double evaluate(double x);
+
+	}
+
+}
@@ -16,8 +16,10 @@
 
 package io.github.thunderbots.lightning.drive;
 
+import io.github.thunderbots.lightning.Lightning;
 import io.github.thunderbots.lightning.hardware.Motor;
 import io.github.thunderbots.lightning.hardware.MotorSet;
+import io.github.thunderbots.lightning.scheduler.ScheduledTask;
 
 /**
  * A {@code DriveSystem} represents the motors used for driving the robot, their
@@ -30,6 +32,18 @@ import io.github.thunderbots.lightning.hardware.MotorSet;
  */
 public abstract class DriveSystem {
 
+	/**
+	 * The default time that a closed-loop movement must stay at its target before it is
+	 * finished, in seconds.
+	 */
+	public static final double DEFAULT_SETTLE_TIME = 0.1;
+
+	/**
+	 * The error allowed when comparing accumulated times, in seconds, so that a sum of
+	 * cycle periods that should equal a time is not a rounding error short of it.
+	 */
+	private static final double TIME_EPSILON = 1e-9;
+
 	/**
 	 * The motors in this drive system.
 	 *
@@ -69,6 +83,97 @@ public abstract class DriveSystem {
 	 */
 	private double encoderTicksPerSwingDegree;
 
+	/**
+	 * The longest time that a motion command of this drive system may run for, in
+	 * seconds, or zero if it may run for any amount of time.
+	 */
+	private double motionTimeout;
+
+	/**
+	 * The motion command that was most recently started on this drive system, or
+	 * {@code null} if none has been started.
+	 */
+	private MotionCommand activeMotion;
+
+	/**
+	 * The controller that closed-loop drive movements are based on, with the distance
+	 * driven in inches as its measurement.
+	 */
+	private PIDController driveController;
+
+	/**
+	 * The controller that closed-loop rotate movements are based on, with the degrees
+	 * rotated as its measurement.
+	 */
+	private PIDController rotateController;
+
+	/**
+	 * The controller that closed-loop swing movements are based on, with the degrees
+	 * swung as its measurement.
+	 */
+	private PIDController swingController;
+
+	/**
+	 * The time that a closed-loop movement must stay at its target before it is finished,
+	 * in seconds.
+	 */
+	private double settleTime = DriveSystem.DEFAULT_SETTLE_TIME;
+
+	/**
+	 * The forward power needed for each inch per second of drive velocity.
+	 */
+	private double driveVelocityGain;
+
+	/**
+	 * The forward power needed for each inch per second squared of drive acceleration.
+	 */
+	private double driveAccelerationGain;
+
+	/**
+	 * The clockwise power needed for each degree per second of rotation velocity.
+	 */
+	private double rotateVelocityGain;
+
+	/**
+	 * The clockwise power needed for each degree per second squared of rotation
+	 * acceleration.
+	 */
+	private double rotateAccelerationGain;
+
+	/**
+	 * The axis that drive movements move along, measured in inches.
+	 */
+	private final MotionAxis driveAxis = new MotionAxis() {
+
+		@Override
+		public double readPosition() {
+			return DriveSystem.this.getDriveInches();
+		}
+
+		@Override
+		public void move(double power) {
+			DriveSystem.this.drive(power);
+		}
+
+	};
+
+	/**
+	 * The axis that rotate movements move along, measured in degrees.
+	 */
+	private final MotionAxis rotateAxis = new MotionAxis() {
+
+		@Override
+		public double readPosition() {
+			return DriveSystem.this.getRotationDegrees();
+		}
+
+		@Override
+		public void move(double power) {
+			DriveSystem.this.rotate(power);
+		}
+
+	};
+
 	/**
 	 * Constructs a new {@code DriveSystem} with the given {@code DriveMotorSet} as a base.
 	 *
@@ -107,6 +212,21 @@ public abstract class DriveSystem {
 	 */
 	public abstract boolean setMovement(double forward, double clockwise);
 
+	/**
+	 * Sets the power of the motors on the robot so that the robot moves as described by
+	 * the three vectors. Drive systems that cannot strafe ignore the right-strafing
+	 * vector, which is what this default implementation does; drive systems that can
+	 * strafe override this method.
+	 *
+	 * @param forward the forward-driving vector; between -1 and 1.
+	 * @param right the right-strafing vector; between -1 and 1.
+	 * @param clockwise the clockwise-spinning vector; between -1 and 1.
+	 * @return the success of the operation.
+	 */
+	public boolean setMovement(double forward, double right, double clockwise) {
+		return this.setMovement(forward, clockwise);
+	}
+
 	// @formatter:off
 	/*
 	 * +-----------------------------------------+
@@ -252,6 +372,180 @@ public abstract class DriveSystem {
 		this.encoderTicksPerSwingDegree = ticks;
 	}
 
+	/**
+	 * Gets the amount of ticks that should be expected if the robot drives forward one
+	 * inch.
+	 *
+	 * @return the amount of encoder ticks in one drive-inch of this drive system.
+	 * @see #encoderTicksPerDriveInch
+	 */
+	public double getEncoderTicksPerDriveInch() {
+		return this.encoderTicksPerDriveInch;
+	}
+
+	/**
+	 * Gets the amount of ticks that should be expected if the robot rotates one degree.
+	 *
+	 * @return the amount of encoder ticks in one rotation degree of this drive system.
+	 * @see #encoderTicksPerRotationDegree
+	 */
+	public double getEncoderTicksPerRotationDegree() {
+		return this.encoderTicksPerRotationDegree;
+	}
+
+	/**
+	 * Gets the longest time that a motion command of this drive system may run for.
+	 *
+	 * @return the timeout of motion commands, in seconds, or zero if they have no timeout.
+	 * @see #motionTimeout
+	 */
+	public double getMotionTimeout() {
+		return this.motionTimeout;
+	}
+
+	/**
+	 * Sets the longest time that a motion command of this drive system may run for. This
+	 * only affects commands that are created after it is set.
+	 *
+	 * @param seconds the timeout of motion commands, in seconds, or zero if they should
+	 * have no timeout.
+	 * @see #motionTimeout
+	 */
+	public void setMotionTimeout(double seconds) {
+		this.motionTimeout = seconds;
+	}
+
+	/**
+	 * Sets the controller that closed-loop drive movements are based on. Each movement
+	 * uses its own copy of the controller, so the controller can be changed at any time.
+	 * The measurement of the controller is the distance driven in inches, and its output
+	 * is the forward power.
+	 * <p>
+	 * The controller must have a tolerance that is not zero; see
+	 * {@link PIDController#setTolerance(double)}.
+	 *
+	 * @param controller the controller for drive movements, or {@code null}.
+	 * @throws IllegalArgumentException if the tolerance of the controller is zero.
+	 * @see #driveInchesPIDAsync(double)
+	 */
+	public void setDriveController(PIDController controller) {
+		DriveSystem.checkController(controller);
+		this.driveController = controller;
+	}
+
+	/**
+	 * Gets the controller that closed-loop drive movements are based on.
+	 *
+	 * @return the controller for drive movements, or {@code null} if none has been set.
+	 */
+	public PIDController getDriveController() {
+		return this.driveController;
+	}
+
+	/**
+	 * Sets the controller that closed-loop rotate movements are based on. Each movement
+	 * uses its own copy of the controller, so the controller can be changed at any time.
+	 * The measurement of the controller is the degrees rotated clockwise, and its output
+	 * is the clockwise power.
+	 * <p>
+	 * The controller must have a tolerance that is not zero; see
+	 * {@link PIDController#setTolerance(double)}.
+	 *
+	 * @param controller the controller for rotate movements, or {@code null}.
+	 * @throws IllegalArgumentException if the tolerance of the controller is zero.
+	 * @see #rotateDegreesPIDAsync(double)
+	 */
+	public void setRotateController(PIDController controller) {
+		DriveSystem.checkController(controller);
+		this.rotateController = controller;
+	}
+
+	/**
+	 * Gets the controller that closed-loop rotate movements are based on.
+	 *
+	 * @return the controller for rotate movements, or {@code null} if none has been set.
+	 */
+	public PIDController getRotateController() {
+		return this.rotateController;
+	}
+
+	/**
+	 * Sets the controller that closed-loop swing movements are based on. Each movement
+	 * uses its own copy of the controller, so the controller can be changed at any time.
+	 * The measurement of the controller is the degrees swung, and its output is the
+	 * forward power of the swing.
+	 * <p>
+	 * The controller must have a tolerance that is not zero; see
+	 * {@link PIDController#setTolerance(double)}.
+	 *
+	 * @param controller the controller for swing movements, or {@code null}.
+	 * @throws IllegalArgumentException if the tolerance of the controller is zero.
+	 * @see #swingDegreesPIDAsync(boolean, double)
+	 */
+	public void setSwingController(PIDController controller) {
+		DriveSystem.checkController(controller);
+		this.swingController = controller;
+	}
+
+	/**
+	 * Gets the controller that closed-loop swing movements are based on.
+	 *
+	 * @return the controller for swing movements, or {@code null} if none has been set.
+	 */
+	public PIDController getSwingController() {
+		return this.swingController;
+	}
+
+	/**
+	 * Sets the time that a closed-loop movement must stay within the tolerance of its
+	 * controller before it is finished.
+	 *
+	 * @param seconds the settle time, in seconds.
+	 * @see #settleTime
+	 */
+	public void setSettleTime(double seconds) {
+		this.settleTime = seconds;
+	}
+
+	/**
+	 * Gets the time that a closed-loop movement must stay within the tolerance of its
+	 * controller before it is finished.
+	 *
+	 * @return the settle time, in seconds.
+	 * @see #settleTime
+	 */
+	public double getSettleTime() {
+		return this.settleTime;
+	}
+
+	/**
+	 * Sets the feedforward gains that profiled drive movements use to turn the velocity
+	 * and acceleration of a profile into forward power.
+	 *
+	 * @param kV the forward power needed for each inch per second of velocity.
+	 * @param kA the forward power needed for each inch per second squared of
+	 * acceleration.
+	 * @see #driveProfileAsync(MotionProfile)
+	 */
+	public void setDriveFeedforward(double kV, double kA) {
+		this.driveVelocityGain = kV;
+		this.driveAccelerationGain = kA;
+	}
+
+	/**
+	 * Sets the feedforward gains that profiled rotate movements use to turn the velocity
+	 * and acceleration of a profile into clockwise power.
+	 *
+	 * @param kV the clockwise power needed for each degree per second of velocity.
+	 * @param kA the clockwise power needed for each degree per second squared of
+	 * acceleration.
+	 * @see #rotateProfileAsync(MotionProfile)
+	 */
+	public void setRotateFeedforward(double kV, double kA) {
+		this.rotateVelocityGain = kV;
+		this.rotateAccelerationGain = kA;
+	}
+
 	// @formatter:off
 	/*
 	 * +-----------------------------------+
@@ -373,6 +667,26 @@ public abstract class DriveSystem {
 		return uninterrupted;
 	}
 
+	/**
+	 * Stops the robot after the given amount of time, without blocking the calling thread.
+	 * The robot is stopped by the master task scheduler, so the calling thread can keep
+	 * working while the robot moves.
+	 *
+	 * @param seconds the time to wait before stopping the robot.
+	 * @return a handle that can be used to cancel the stop.
+	 * @see io.github.thunderbots.lightning.scheduler.TaskScheduler#schedule(Runnable, long)
+	 */
+	public ScheduledTask haltAfter(double seconds) {
+		return Lightning.getTaskScheduler().schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				DriveSystem.this.halt();
+			}
+
+		}, (long) (seconds * 1000));
+	}
+
 	// @formatter:off
 	/*
 	 * +------------------------------------+
@@ -384,65 +698,195 @@ public abstract class DriveSystem {
 	// @formatter:on
 
 	/**
-	 * Drives the robot forward with the given power and for the given tick distance, then
-	 * stops.
+	 * Starts the given motion command on the master task scheduler. If another motion
+	 * command is still running on this drive system, it is cancelled first.
+	 *
+	 * @param command the command to start.
+	 * @return the command.
+	 * @throws IllegalArgumentException if the command is for a different drive system.
+	 * @throws IllegalStateException if the command has already been started.
+	 */
+	public synchronized MotionCommand startMotion(MotionCommand command) {
+		if (command.getDriveSystem() != this) {
+			throw new IllegalArgumentException("Command is for a different drive system: "
+					+ command);
+		}
+		if (this.activeMotion != null) {
+			this.activeMotion.cancel();
+		}
+		this.activeMotion = command;
+		command.start(Lightning.getTaskScheduler());
+		return command;
+	}
+
+	/**
+	 * Cancels the motion command that is running on this drive system, if there is one.
+	 *
+	 * @return {@code true} if a command was cancelled.
+	 */
+	public synchronized boolean cancelMotion() {
+		return this.activeMotion != null && this.activeMotion.cancel();
+	}
+
+	/**
+	 * Starts driving the robot forward with the given power, and stops once the drive
+	 * encoders have moved the given tick distance. This method returns right away.
 	 *
 	 * @param power the forward power; between -1 and 1.
 	 * @param ticks the amount of encoder ticks to move for.
-	 * @return the success of the operation.
+	 * @return a handle to the movement.
 	 * @see #drive(double)
 	 */
+	public MotionCommand driveTicksAsync(final double power, int ticks) {
+		return this.startMotion(new EncoderMotion(ticks) {
+
+			@Override
+			protected int readTicks() {
+				return DriveSystem.this.getDriveTicks();
+			}
+
+			@Override
+			protected void move() {
+				DriveSystem.this.drive(power);
+			}
+
+		});
+	}
+
+	/**
+	 * Starts spinning the robot clockwise with the given power, and stops once the rotate
+	 * encoders have moved the given tick distance. This method returns right away.
+	 *
+	 * @param power the clockwise power; between -1 and 1.
+	 * @param ticks the amount of encoder ticks to move for.
+	 * @return a handle to the movement.
+	 * @see #rotate(double)
+	 */
+	public MotionCommand rotateTicksAsync(final double power, int ticks) {
+		return this.startMotion(new EncoderMotion(ticks) {
+
+			@Override
+			protected int readTicks() {
+				return DriveSystem.this.getRotateTicks();
+			}
+
+			@Override
+			protected void move() {
+				DriveSystem.this.rotate(power);
+			}
+
+		});
+	}
+
+	/**
+	 * Starts swinging the robot with the given spin and forward power, and stops once the
+	 * swing encoders have moved the given tick distance. This method returns right away.
+	 *
+	 * @param clockwise {@code true} if the robot should swing clockwise, or {@code false}
+	 * if the robot should spin counter-clockwise.
+	 * @param power the forward power; between -1 and 1.
+	 * @param ticks the amount of encoder ticks to move for.
+	 * @return a handle to the movement.
+	 * @see #swing(boolean, double)
+	 */
+	public MotionCommand swingTicksAsync(final boolean clockwise, final double power,
+			int ticks) {
+		return this.startMotion(new EncoderMotion(ticks) {
+
+			@Override
+			protected int readTicks() {
+				return DriveSystem.this.getSwingTicks(clockwise);
+			}
+
+			@Override
+			protected void move() {
+				DriveSystem.this.swing(clockwise, power);
+			}
+
+		});
+	}
+
+	/**
+	 * Starts driving the robot forward with the given power, and stops once it has driven
+	 * the given distance. This method returns right away.
+	 *
+	 * @param power the forward power; between -1 and 1.
+	 * @param inches the distance to drive forward, in inches.
+	 * @return a handle to the movement.
+	 */
+	public MotionCommand driveInchesAsync(double power, double inches) {
+		return this.driveTicksAsync(power, (int) (this.driveInchesToTicks(inches)));
+	}
+
+	/**
+	 * Starts spinning the robot clockwise with the given power, and stops once it has
+	 * rotated the given amount of degrees. This method returns right away.
+	 *
+	 * @param power the clockwise power; between -1 and 1.
+	 * @param degrees the degrees to rotate the robot.
+	 * @return a handle to the movement.
+	 */
+	public MotionCommand rotateDegreesAsync(double power, double degrees) {
+		return this.rotateTicksAsync(power, (int) (this.rotateDegreesToTicks(degrees)));
+	}
+
+	/**
+	 * Starts swinging the robot with the given spin and forward power, and stops once it
+	 * has swung the given amount of degrees. This method returns right away.
+	 *
+	 * @param clockwise {@code true} if the robot should swing clockwise, or {@code false}
+	 * if the robot should spin counter-clockwise.
+	 * @param power the forward power; between -1 and 1.
+	 * @param degrees the amount of degrees to move for.
+	 * @return a handle to the movement.
+	 */
+	public MotionCommand swingDegreesAsync(boolean clockwise, double power, double degrees) {
+		return this.swingTicksAsync(clockwise, power,
+				(int) (this.swingDegreesToTicks(degrees)));
+	}
+
+	/**
+	 * Drives the robot forward with the given power and for the given tick distance, then
+	 * stops. The calling thread sleeps until the movement is finished.
+	 *
+	 * @param power the forward power; between -1 and 1.
+	 * @param ticks the amount of encoder ticks to move for.
+	 * @return {@code true} if the movement finished, or {@code false} if it was cancelled
+	 * or timed out.
+	 * @see #driveTicksAsync(double, int)
+	 */
 	public boolean driveTicks(double power, int ticks) {
-		int start = this.getDriveTicks();
-		int end = start + ticks;
-		this.drive(power);
-		while (this.getDriveTicks() < end) {
-			// do nothing
-		}
-		this.halt();
-		return true;
+		return this.driveTicksAsync(power, ticks).await();
 	}
 
 	/**
 	 * Spins the robot clockwise with the given power and for the given tick distance, then
-	 * stops.
+	 * stops. The calling thread sleeps until the movement is finished.
 	 *
 	 * @param power the clockwise power; between -1 and 1.
 	 * @param ticks the amount of encoder ticks to move for.
-	 * @return the success of the operation.
-	 * @see #rotate(double)
+	 * @return {@code true} if the movement finished, or {@code false} if it was cancelled
+	 * or timed out.
+	 * @see #rotateTicksAsync(double, int)
 	 */
 	public boolean rotateTicks(double power, int ticks) {
-		int start = this.getRotateTicks();
-		int end = start + ticks;
-		this.rotate(power);
-		while (this.getRotateTicks() < end) {
-			// do nothing
-		}
-		this.halt();
-		return true;
+		return this.rotateTicksAsync(power, ticks).await();
 	}
 
 	/**
 	 * Swings the robot with the given spin and forward power, and for the given tick
-	 * distance, then stops.
+	 * distance, then stops. The calling thread sleeps until the movement is finished.
 	 *
 	 * @param clockwise {@code true} if the robot should swing clockwise, or {@code false}
 	 * if the robot should spin counter-clockwise.
 	 * @param power the forward power; between -1 and 1.
 	 * @param ticks the amount of encoder ticks to move for.
-	 * @return the success of the operation.
-	 * @see #swing(boolean, double)
+	 * @return {@code true} if the movement finished, or {@code false} if it was cancelled
+	 * or timed out.
+	 * @see #swingTicksAsync(boolean, double, int)
 	 */
 	public boolean swingTicks(boolean clockwise, double power, int ticks) {
-		int start = this.getSwingTicks(clockwise);
-		int end = start + ticks;
-		this.swing(clockwise, power);
-		while (this.getSwingTicks(clockwise) < end) {
-			// do nothing
-		}
-		this.halt();
-		return true;
+		return this.swingTicksAsync(clockwise, power, ticks).await();
 	}
 
 	/**
@@ -485,4 +929,535 @@ public abstract class DriveSystem {
 		return this.swingTicks(clockwise, power, (int) (this.swingDegreesToTicks(degrees)));
 	}
 
+	// @formatter:off
+	/*
+	 * +------------------------------------+
+	 * |                                    |
+	 * |    Closed-loop movement methods    |
+	 * |                                    |
+	 * +------------------------------------+
+	 */
+	// @formatter:on
+
+	/**
+	 * Starts driving the robot forward the given distance, with the power given by the
+	 * drive controller. The movement finishes once the robot has stayed within the
+	 * tolerance of the controller for the settle time. This method returns right away.
+	 *
+	 * @param inches the distance to drive forward, in inches.
+	 * @return a handle to the movement.
+	 * @throws IllegalStateException if no drive controller has been set, or its
+	 * tolerance is zero.
+	 * @see #setDriveController(PIDController)
+	 */
+	public MotionCommand driveInchesPIDAsync(double inches) {
+		return this.startMotion(new ControlledMotion(this.driveAxis, this.driveController,
+				inches));
+	}
+
+	/**
+	 * Starts spinning the robot clockwise the given amount of degrees, with the power
+	 * given by the rotate controller. The movement finishes once the robot has stayed
+	 * within the tolerance of the controller for the settle time. This method returns
+	 * right away.
+	 *
+	 * @param degrees the degrees to rotate the robot.
+	 * @return a handle to the movement.
+	 * @throws IllegalStateException if no rotate controller has been set, or its
+	 * tolerance is zero.
+	 * @see #setRotateController(PIDController)
+	 */
+	public MotionCommand rotateDegreesPIDAsync(double degrees) {
+		return this.startMotion(new ControlledMotion(this.rotateAxis,
+				this.rotateController, degrees));
+	}
+
+	/**
+	 * Starts swinging the robot the given amount of degrees, with the power given by the
+	 * swing controller. The movement finishes once the robot has stayed within the
+	 * tolerance of the controller for the settle time. This method returns right away.
+	 *
+	 * @param clockwise {@code true} if the robot should swing clockwise, or {@code false}
+	 * if the robot should spin counter-clockwise.
+	 * @param degrees the amount of degrees to move for.
+	 * @return a handle to the movement.
+	 * @throws IllegalStateException if no swing controller has been set, or its
+	 * tolerance is zero.
+	 * @see #setSwingController(PIDController)
+	 */
+	public MotionCommand swingDegreesPIDAsync(boolean clockwise, double degrees) {
+		return this.startMotion(new ControlledMotion(new SwingAxis(clockwise),
+				this.swingController, degrees));
+	}
+
+	/**
+	 * Drives the robot forward the given distance, with the power given by the drive
+	 * controller. The calling thread sleeps until the movement is finished.
+	 *
+	 * @param inches the distance to drive forward, in inches.
+	 * @return {@code true} if the movement finished, or {@code false} if it was cancelled
+	 * or timed out.
+	 * @see #driveInchesPIDAsync(double)
+	 */
+	public boolean driveInchesPID(double inches) {
+		return this.driveInchesPIDAsync(inches).await();
+	}
+
+	/**
+	 * Spins the robot clockwise the given amount of degrees, with the power given by the
+	 * rotate controller. The calling thread sleeps until the movement is finished.
+	 *
+	 * @param degrees the degrees to rotate the robot.
+	 * @return {@code true} if the movement finished, or {@code false} if it was cancelled
+	 * or timed out.
+	 * @see #rotateDegreesPIDAsync(double)
+	 */
+	public boolean rotateDegreesPID(double degrees) {
+		return this.rotateDegreesPIDAsync(degrees).await();
+	}
+
+	/**
+	 * Swings the robot the given amount of degrees, with the power given by the swing
+	 * controller. The calling thread sleeps until the movement is finished.
+	 *
+	 * @param clockwise {@code true} if the robot should swing clockwise, or {@code false}
+	 * if the robot should spin counter-clockwise.
+	 * @param degrees the amount of degrees to move for.
+	 * @return {@code true} if the movement finished, or {@code false} if it was cancelled
+	 * or timed out.
+	 * @see #swingDegreesPIDAsync(boolean, double)
+	 */
+	public boolean swingDegreesPID(boolean clockwise, double degrees) {
+		return this.swingDegreesPIDAsync(clockwise, degrees).await();
+	}
+
+	// @formatter:off
+	/*
+	 * +------------------------------------+
+	 * |                                    |
+	 * |     Profiled movement methods      |
+	 * |                                    |
+	 * +------------------------------------+
+	 */
+	// @formatter:on
+
+	/**
+	 * Starts driving the robot forward along the given profile, in inches. The power in
+	 * each cycle is the drive feedforward of the setpoints of the profile, corrected by
+	 * the drive controller if one has been set. Without a controller, the movement
+	 * finishes when the profile ends; with one, it finishes once the robot has also
+	 * stayed at the end of the profile for the settle time. This method returns right
+	 * away.
+	 *
+	 * @param profile the profile to follow, in inches.
+	 * @return a handle to the movement.
+	 * @throws IllegalStateException if the drive controller has a tolerance of zero.
+	 * @see #setDriveFeedforward(double, double)
+	 * @see #setDriveController(PIDController)
+	 */
+	public MotionCommand driveProfileAsync(MotionProfile profile) {
+		return this.startMotion(new ControlledMotion(this.driveAxis, profile,
+				this.driveVelocityGain, this.driveAccelerationGain, this.driveController));
+	}
+
+	/**
+	 * Starts spinning the robot clockwise along the given profile, in degrees. The power
+	 * in each cycle is the rotate feedforward of the setpoints of the profile, corrected
+	 * by the rotate controller if one has been set. Without a controller, the movement
+	 * finishes when the profile ends; with one, it finishes once the robot has also
+	 * stayed at the end of the profile for the settle time. This method returns right
+	 * away.
+	 *
+	 * @param profile the profile to follow, in degrees.
+	 * @return a handle to the movement.
+	 * @throws IllegalStateException if the rotate controller has a tolerance of zero.
+	 * @see #setRotateFeedforward(double, double)
+	 * @see #setRotateController(PIDController)
+	 */
+	public MotionCommand rotateProfileAsync(MotionProfile profile) {
+		return this.startMotion(new ControlledMotion(this.rotateAxis, profile,
+				this.rotateVelocityGain, this.rotateAccelerationGain,
+				this.rotateController));
+	}
+
+	/**
+	 * Drives the robot forward along the given profile, in inches. The calling thread
+	 * sleeps until the movement is finished.
+	 *
+	 * @param profile the profile to follow, in inches.
+	 * @return {@code true} if the movement finished, or {@code false} if it was cancelled
+	 * or timed out.
+	 * @see #driveProfileAsync(MotionProfile)
+	 */
+	public boolean driveProfile(MotionProfile profile) {
+		return this.driveProfileAsync(profile).await();
+	}
+
+	/**
+	 * Spins the robot clockwise along the given profile, in degrees. The calling thread
+	 * sleeps until the movement is finished.
+	 *
+	 * @param profile the profile to follow, in degrees.
+	 * @return {@code true} if the movement finished, or {@code false} if it was cancelled
+	 * or timed out.
+	 * @see #rotateProfileAsync(MotionProfile)
+	 */
+	public boolean rotateProfile(MotionProfile profile) {
+		return this.rotateProfileAsync(profile).await();
+	}
+
+	// @formatter:off
+	/*
+	 * +------------------------------------+
+	 * |                                    |
+	 * |       Path following methods       |
+	 * |                                    |
+	 * +------------------------------------+
+	 */
+	// @formatter:on
+
+	/**
+	 * Starts following the given path with the default lookahead distance and tolerance.
+	 * This method returns right away. To change the lookahead distance or tolerance,
+	 * create a {@code PathFollower} and start it with {@link #startMotion(MotionCommand)}.
+	 *
+	 * @param path the path to follow.
+	 * @param tracker the tracker of the pose of the robot, which must be running.
+	 * @param power the power to drive with; between 0 and 1.
+	 * @return a handle to the movement.
+	 * @see PathFollower
+	 */
+	public MotionCommand followPathAsync(Path path, PoseTracker tracker, double power) {
+		return this.startMotion(new PathFollower(this, tracker, path, power));
+	}
+
+	/**
+	 * Follows the given path with the default lookahead distance and tolerance. The
+	 * calling thread sleeps until the movement is finished.
+	 *
+	 * @param path the path to follow.
+	 * @param tracker the tracker of the pose of the robot, which must be running.
+	 * @param power the power to drive with; between 0 and 1.
+	 * @return {@code true} if the movement finished, or {@code false} if it was cancelled
+	 * or timed out.
+	 * @see #followPathAsync(Path, PoseTracker, double)
+	 */
+	public boolean followPath(Path path, PoseTracker tracker, double power) {
+		return this.followPathAsync(path, tracker, power).await();
+	}
+
+	/**
+	 * An {@code EncoderMotion} is a motion command that moves the robot with a constant
+	 * power until a set of encoders has moved a given distance, in either direction.
+	 *
+	 * @author Zach Ohara
+	 */
+	private abstract class EncoderMotion extends MotionCommand {
+
+		/**
+		 * The distance to move, in encoder ticks.
+		 */
+		private final int ticks;
+
+		/**
+		 * The encoder value when the movement started.
+		 */
+		private int start;
+
+		/**
+		 * Constructs a new {@code EncoderMotion} that moves the given distance.
+		 *
+		 * @param ticks the distance to move, in encoder ticks.
+		 */
+		public EncoderMotion(int ticks) {
+			super(DriveSystem.this, DriveSystem.this.motionTimeout);
+			this.ticks = ticks;
+		}
+
+		/**
+		 * Reads the encoders that measure this movement.
+		 *
+		 * @return the current encoder value.
+		 */
+		protected abstract int readTicks();
+
+		/**
+		 * Sets the power of the drive system for this movement.
+		 */
+		protected abstract void move();
+
+		@Override
+		protected void initialize() {
+			this.start = this.readTicks();
+			this.move();
+		}
+
+		@Override
+		protected boolean execute() {
+			return Math.abs(this.readTicks() - this.start) >= Math.abs(this.ticks);
+		}
+
+	}
+
+	/**
+	 * Checks that the given controller can be set for closed-loop movements.
+	 *
+	 * @param controller the controller to check, or {@code null}.
+	 * @throws IllegalArgumentException if the tolerance of the controller is zero.
+	 * @see PIDController#setTolerance(double)
+	 */
+	private static void checkController(PIDController controller) {
+		if (controller != null && controller.getTolerance() == 0) {
+			throw new IllegalArgumentException(
+					"A closed-loop controller must have a non-zero tolerance");
+		}
+	}
+
+	/**
+	 * Checks that the given controller can finish a closed-loop movement. This is checked
+	 * again when the movement starts, because the tolerance of a controller may have been
+	 * changed after it was set.
+	 *
+	 * @param controller the controller to check.
+	 * @throws IllegalStateException if the tolerance of the controller is zero.
+	 * @see PIDController#setTolerance(double)
+	 */
+	private static void checkTolerance(PIDController controller) {
+		if (controller.getTolerance() == 0) {
+			throw new IllegalStateException(
+					"The controller for this motion must have a non-zero tolerance");
+		}
+	}
+
+	/**
+	 * A {@code MotionAxis} is one way that the drive system can move, together with the
+	 * measurement of how far it has moved that way. Closed-loop and profiled movements
+	 * use an axis to read their position and set their power.
+	 *
+	 * @author Zach Ohara
+	 */
+	private abstract static class MotionAxis {
+
+		/**
+		 * Reads the position of the robot along this axis.
+		 *
+		 * @return the current position, in the units of this axis.
+		 */
+		public abstract double readPosition();
+
+		/**
+		 * Moves the robot along this axis with the given power.
+		 *
+		 * @param power the power to move with; between -1 and 1.
+		 */
+		public abstract void move(double power);
+
+	}
+
+	/**
+	 * A {@code SwingAxis} is the axis that swing movements in one direction move along,
+	 * measured in degrees.
+	 *
+	 * @author Zach Ohara
+	 */
+	private class SwingAxis extends MotionAxis {
+
+		/**
+		 * {@code true} if this axis swings clockwise, or {@code false} if it swings
+		 * counter-clockwise.
+		 */
+		private final boolean clockwise;
+
+		/**
+		 * Constructs a new {@code SwingAxis} in the given direction.
+		 *
+		 * @param clockwise {@code true} if the axis swings clockwise, or {@code false} if
+		 * it swings counter-clockwise.
+		 */
+		public SwingAxis(boolean clockwise) {
+			this.clockwise = clockwise;
+		}
+
+		@Override
+		public double readPosition() {
+			return DriveSystem.this.getSwingDegrees(this.clockwise);
+		}
+
+		@Override
+		public void move(double power) {
+			DriveSystem.this.swing(this.clockwise, power);
+		}
+
+	}
+
+	/**
+	 * A {@code ControlledMotion} is a motion command that moves the robot along a
+	 * {@code MotionAxis}. It either moves a fixed distance with the power given by a
+	 * {@code PIDController}, or follows a {@code MotionProfile} with velocity and
+	 * acceleration feedforward, optionally corrected by a {@code PIDController}. With a
+	 * controller, the movement finishes once the robot has stayed at the target for the
+	 * settle time of the drive system.
+	 *
+	 * @author Zach Ohara
+	 */
+	private class ControlledMotion extends MotionCommand {
+
+		/**
+		 * The axis that this movement moves along.
+		 */
+		private final MotionAxis axis;
+
+		/**
+		 * The profile to follow, or {@code null} to move straight to the target.
+		 */
+		private final MotionProfile profile;
+
+		/**
+		 * The distance to move when there is no profile, in the units of the axis.
+		 */
+		private final double target;
+
+		/**
+		 * The power needed for each unit of velocity.
+		 */
+		private final double kV;
+
+		/**
+		 * The power needed for each unit of acceleration.
+		 */
+		private final double kA;
+
+		/**
+		 * The controller that corrects the position, or {@code null} to only use
+		 * feedforward.
+		 */
+		private final PIDController controller;
+
+		/**
+		 * The time that the robot must stay at the target, in seconds.
+		 */
+		private final double settleTime;
+
+		/**
+		 * The measurement when the movement started.
+		 */
+		private double start;
+
+		/**
+		 * The time that the movement started, as given by {@code System.nanoTime()}.
+		 */
+		private long startTime;
+
+		/**
+		 * The time that the robot has stayed at the target for, in seconds.
+		 */
+		private double settled;
+
+		/**
+		 * Constructs a new {@code ControlledMotion} that moves the given distance with
+		 * the power given by the given controller.
+		 *
+		 * @param axis the axis to move along.
+		 * @param controller the controller to copy for this movement.
+		 * @param target the distance to move, in the units of the axis.
+		 * @throws IllegalStateException if the controller is {@code null}, or its
+		 * tolerance is zero.
+		 */
+		public ControlledMotion(MotionAxis axis, PIDController controller, double target) {
+			this(axis, null, target, 0, 0, controller);
+			if (controller == null) {
+				throw new IllegalStateException(
+						"No controller has been set for this motion");
+			}
+		}
+
+		/**
+		 * Constructs a new {@code ControlledMotion} that follows the given profile.
+		 *
+		 * @param axis the axis to move along.
+		 * @param profile the profile to follow, in the units of the axis.
+		 * @param kV the power needed for each unit of velocity.
+		 * @param kA the power needed for each unit of acceleration.
+		 * @param controller the controller to copy for this movement, or {@code null} to
+		 * only use feedforward.
+		 * @throws IllegalStateException if the tolerance of the controller is zero.
+		 */
+		public ControlledMotion(MotionAxis axis, MotionProfile profile, double kV,
+				double kA, PIDController controller) {
+			this(axis, profile, 0, kV, kA, controller);
+		}
+
+		/**
+		 * Constructs a new {@code ControlledMotion}.
+		 *
+		 * @param axis the axis to move along.
+		 * @param profile the profile to follow, or {@code null} to move straight to the
+		 * target.
+		 * @param target the distance to move when there is no profile.
+		 * @param kV the power needed for each unit of velocity.
+		 * @param kA the power needed for each unit of acceleration.
+		 * @param controller the controller to copy for this movement, or {@code null}.
+		 * @throws IllegalStateException if the tolerance of the controller is zero.
+		 */
+		private ControlledMotion(MotionAxis axis, MotionProfile profile, double target,
+				double kV, double kA, PIDController controller) {
+			super(DriveSystem.this, DriveSystem.this.motionTimeout);
+			if (controller != null) {
+				DriveSystem.checkTolerance(controller);
+			}
+			this.axis = axis;
+			this.profile = profile;
+			this.target = target;
+			this.kV = kV;
+			this.kA = kA;
+			this.controller = controller == null ? null : new PIDController(controller);
+			this.settleTime = DriveSystem.this.settleTime;
+		}
+
+		@Override
+		protected void initialize() {
+			if (this.controller != null) {
+				this.controller.reset();
+			}
+			this.settled = 0;
+			this.start = this.axis.readPosition();
+			this.startTime = System.nanoTime();
+		}
+
+		@Override
+		protected boolean execute() {
+			double setpoint = this.target;
+			double velocity = 0;
+			double power = 0;
+			boolean ended = true;
+			if (this.profile != null) {
+				double elapsed = (System.nanoTime() - this.startTime) / 1e9;
+				int index = this.profile.getIndex(elapsed);
+				setpoint = this.profile.getPosition(index);
+				velocity = this.profile.getVelocity(index);
+				power = this.kV * velocity + this.kA * this.profile.getAcceleration(index);
+				ended = elapsed >= this.profile.getDuration();
+			}
+			if (this.controller != null) {
+				this.controller.setPeriod(this.getPeriod());
+				this.controller.setSetpoint(setpoint);
+				power += this.controller.calculate(this.axis.readPosition() - this.start,
+						velocity);
+				if (ended && this.controller.atSetpoint()) {
+					this.settled += this.getPeriod();
+				} else {
+					this.settled = 0;
+				}
+				ended = this.settled > 0
+						&& this.settled >= this.settleTime - DriveSystem.TIME_EPSILON;
+			}
+			if (ended) {
+				return true;
+			}
+			this.axis.move(Math.max(-1, Math.min(1, power)));
+			return false;
+		}
+
+	}
+
 }
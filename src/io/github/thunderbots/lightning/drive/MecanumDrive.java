@@ -18,10 +18,22 @@ package io.github.thunderbots.lightning.drive;
 
 import io.github.thunderbots.lightning.hardware.Motor;
 import io.github.thunderbots.lightning.hardware.MotorSet;
+import io.github.thunderbots.lightning.sensor.HeadingSource;
 
 /**
  * A {@code MecanumDrive} is a {@code DriveSystem} that represents a system using mecanum
  * wheels.
+ * <p>
+ * A mecanum drive can be driven in a field-centric mode, given a {@link HeadingSource}.
+ * In this mode, the forward and right vectors of every movement are relative to the
+ * field instead of the robot, so pushing a stick forward always moves the robot away
+ * from the driver, whichever way the robot faces. The sine and cosine of the heading are
+ * only recalculated when the heading changes.
+ * <p>
+ * Movements may be set from any thread, such as the op mode thread and the scheduler
+ * thread that runs motion commands. Each movement is set under a lock that only guards
+ * the shared power buffer and heading cache, so the four motors always get the powers of
+ * one movement.
  *
  * @author Zach Ohara
  */
@@ -76,11 +88,107 @@ public class MecanumDrive extends DriveSystem {
 	 */
 	public static final double ROTATE_POWER_WEIGHT = 1.0;
 
+	/**
+	 * The lock that is held while a movement is set, and while the heading source or the
+	 * field-centric mode is changed. It is separate from the lock of the drive system, so
+	 * a motion command that sets a movement cannot deadlock with
+	 * {@link #startMotion(MotionCommand)}.
+	 */
+	private final Object movementLock = new Object();
+
+	/**
+	 * The powers of the four motors, which are reused by every call to
+	 * {@link #setMovement(double, double, double)} instead of being allocated each time.
+	 * It is only used while the movement lock is held.
+	 */
+	private final double[] motorPowers = new double[4];
+
+	/**
+	 * The source of the heading of the robot, for field-centric movement.
+	 */
+	private HeadingSource headingSource;
+
+	/**
+	 * Whether movement is field-centric.
+	 */
+	private boolean fieldCentric;
+
+	/**
+	 * The heading that {@link #headingSin} and {@link #headingCos} were calculated for.
+	 */
+	private double lastHeading = Double.NaN;
+
+	/**
+	 * The sine of {@link #lastHeading}.
+	 */
+	private double headingSin;
+
+	/**
+	 * The cosine of {@link #lastHeading}.
+	 */
+	private double headingCos;
+
 	@Override
 	public boolean setMovement(double forward, double clockwise) {
 		return this.setMovement(forward, 0, clockwise);
 	}
 
+	/**
+	 * Sets the source of the heading of the robot, which is used for field-centric
+	 * movement.
+	 *
+	 * @param headingSource the source of the heading of the robot.
+	 */
+	public void setHeadingSource(HeadingSource headingSource) {
+		synchronized (this.movementLock) {
+			this.headingSource = headingSource;
+			this.lastHeading = Double.NaN;
+		}
+	}
+
+	/**
+	 * Gets the source of the heading of the robot.
+	 *
+	 * @return the source of the heading of the robot, or {@code null} if none has been
+	 * set.
+	 */
+	public HeadingSource getHeadingSource() {
+		synchronized (this.movementLock) {
+			return this.headingSource;
+		}
+	}
+
+	/**
+	 * Sets whether movement is field-centric. In field-centric mode, the forward and right
+	 * vectors of every movement are rotated by the heading of the robot, so they are
+	 * relative to the field instead of the robot.
+	 *
+	 * @param fieldCentric {@code true} if movement should be field-centric, or
+	 * {@code false} if it should be relative to the robot.
+	 * @throws IllegalStateException if field-centric movement is requested and no heading
+	 * source has been set.
+	 */
+	public void setFieldCentric(boolean fieldCentric) {
+		synchronized (this.movementLock) {
+			if (fieldCentric && this.headingSource == null) {
+				throw new IllegalStateException(
+						"Field-centric movement needs a heading source");
+			}
+			this.fieldCentric = fieldCentric;
+		}
+	}
+
+	/**
+	 * Determines if movement is field-centric.
+	 *
+	 * @return {@code true} if movement is field-centric.
+	 */
+	public boolean isFieldCentric() {
+		synchronized (this.movementLock) {
+			return this.fieldCentric;
+		}
+	}
+
 	/**
 	 * Strafes (moves sideways) with the given power.
 	 *
@@ -132,45 +240,71 @@ public class MecanumDrive extends DriveSystem {
 
 	/**
 	 * Sets the power of the motors on the robot so that the robot moves as described by
-	 * the three vectors.
+	 * the three vectors. In field-centric mode, the forward and right vectors are relative
+	 * to the field. This may be called from any thread; calls that overlap are applied one
+	 * after the other.
 	 *
 	 * @param forward the forward-driving vector; between -1 and 1.
 	 * @param right the right-strafing vector; between -1 and 1.
 	 * @param clockwise the clockwise-spinning vector; between -1 and 1.
 	 * @return the success of the operation.
+	 * @see #setFieldCentric(boolean)
 	 */
+	@Override
 	public boolean setMovement(double forward, double right, double clockwise) {
-		forward *= MecanumDrive.MOVE_POWER_SCALE * MecanumDrive.DRIVE_POWER_WEIGHT;
-		right *= MecanumDrive.MOVE_POWER_SCALE * MecanumDrive.STRAFE_POWER_WEIGHT;
-		clockwise *= MecanumDrive.MOVE_POWER_SCALE * MecanumDrive.ROTATE_POWER_WEIGHT;
-
-		double frontLeft = forward + right + clockwise;
-		double frontRight = -forward + right + clockwise;
-		double backLeft = forward - right + clockwise;
-		double backRight = -forward - right + clockwise;
-
-		double max =
-				Math.max(Math.max(Math.abs(frontLeft), Math.abs(frontRight)),
-						Math.max(Math.abs(backLeft), Math.abs(backRight)));
-
-		if (max > Motor.MAX_POWER) {
-			double scale = max / Motor.MAX_POWER;
-			frontLeft /= scale;
-			frontRight /= scale;
-			backLeft /= scale;
-			backRight /= scale;
-		}
+		synchronized (this.movementLock) {
+			if (this.fieldCentric) {
+				this.updateHeading();
+				double robotForward = forward * this.headingCos + right * this.headingSin;
+				right = right * this.headingCos - forward * this.headingSin;
+				forward = robotForward;
+			}
+			forward *= MecanumDrive.MOVE_POWER_SCALE * MecanumDrive.DRIVE_POWER_WEIGHT;
+			right *= MecanumDrive.MOVE_POWER_SCALE * MecanumDrive.STRAFE_POWER_WEIGHT;
+			clockwise *= MecanumDrive.MOVE_POWER_SCALE * MecanumDrive.ROTATE_POWER_WEIGHT;
+
+			double frontLeft = forward + right + clockwise;
+			double frontRight = -forward + right + clockwise;
+			double backLeft = forward - right + clockwise;
+			double backRight = -forward - right + clockwise;
+
+			double max =
+					Math.max(Math.max(Math.abs(frontLeft), Math.abs(frontRight)),
+							Math.max(Math.abs(backLeft), Math.abs(backRight)));
 
-		double[] motorPowers = new double[4];
-		motorPowers[0] = frontLeft;
-		motorPowers[1] = frontRight;
-		motorPowers[2] = backLeft;
-		motorPowers[3] = backRight;
-		this.getMotorSet().setMotorPowers(motorPowers);
+			if (max > Motor.MAX_POWER) {
+				double scale = max / Motor.MAX_POWER;
+				frontLeft /= scale;
+				frontRight /= scale;
+				backLeft /= scale;
+				backRight /= scale;
+			}
 
+			double[] motorPowers = this.motorPowers;
+			motorPowers[0] = frontLeft;
+			motorPowers[1] = frontRight;
+			motorPowers[2] = backLeft;
+			motorPowers[3] = backRight;
+			this.getMotorSet().setMotorPowers(motorPowers);
+		}
 		return true;
 	}
 
+	/**
+	 * Reads the heading of the robot, and recalculates its sine and cosine if it has
+	 * changed since the last reading. This must only be called while the movement lock is
+	 * held.
+	 */
+	private void updateHeading() {
+		double heading = this.headingSource.getHeading();
+		if (heading != this.lastHeading) {
+			double radians = Math.toRadians(heading);
+			this.headingSin = Math.sin(radians);
+			this.headingCos = Math.cos(radians);
+			this.lastHeading = heading;
+		}
+	}
+
 	@Override
 	public int getDriveTicks() {
 		Motor[] motors = this.getMotorSet().getMotorArray();
@@ -0,0 +1,336 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.drive;
+
+import io.github.thunderbots.lightning.scheduler.TaskScheduler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code MotionCommand} is a movement of a {@code DriveSystem} that is carried out by a
+ * {@code TaskScheduler}, once every cycle, instead of by the thread that asked for it.
+ * Starting a command returns right away, and the command itself is a handle that can be
+ * used to wait for the movement to finish, to check how it finished, or to cancel it.
+ * <p>
+ * A subclass describes the movement with two methods: {@link #initialize()} is called
+ * in the first cycle of the command, and {@link #execute()} is called in every cycle,
+ * including the first, until it reports that the movement is finished. Both methods are
+ * always called on the scheduler thread. However the command finishes, the drive system
+ * is halted.
+ *
+ * @author Zach Ohara
+ * @see DriveSystem#startMotion(MotionCommand)
+ */
+public abstract class MotionCommand {
+
+	/**
+	 * The state of a {@code MotionCommand}.
+	 *
+	 * @author Zach Ohara
+	 */
+	public enum Status {
+
+		/**
+		 * The command has not finished yet.
+		 */
+		RUNNING,
+
+		/**
+		 * The command finished the movement it describes.
+		 */
+		COMPLETED,
+
+		/**
+		 * The command was cancelled, or stopped because of an exception, before it
+		 * finished.
+		 */
+		CANCELLED,
+
+		/**
+		 * The command did not finish before its timeout ran out.
+		 */
+		TIMED_OUT
+
+	}
+
+	/**
+	 * The drive system that this command moves.
+	 */
+	private final DriveSystem drive;
+
+	/**
+	 * The longest time that this command may run for, in nanoseconds, or zero if it may
+	 * run for any amount of time.
+	 */
+	private final long timeout;
+
+	/**
+	 * The latch that is released when this command finishes.
+	 */
+	private final CountDownLatch finished;
+
+	/**
+	 * The current state of this command.
+	 */
+	private volatile Status status;
+
+	/**
+	 * The scheduler that runs this command, or {@code null} if the command has not been
+	 * started.
+	 */
+	private TaskScheduler scheduler;
+
+	/**
+	 * The task that runs this command in every cycle of the scheduler.
+	 */
+	private final Runnable task;
+
+	/**
+	 * The cycle period of the scheduler that runs this command, in nanoseconds, or zero if
+	 * the scheduler is free-running.
+	 */
+	private long cyclePeriod;
+
+	/**
+	 * The time between the current cycle of this command and the one before it, in
+	 * seconds.
+	 */
+	private double period;
+
+	/**
+	 * The time that the last cycle of this command started at, or that the command was
+	 * started at if it has not run yet, as given by {@code System.nanoTime()}.
+	 */
+	private long lastStepTime;
+
+	/**
+	 * Determines if {@link #initialize()} has been called.
+	 */
+	private boolean initialized;
+
+	/**
+	 * The time that this command was initialized at, as given by
+	 * {@code System.nanoTime()}.
+	 */
+	private long startTime;
+
+	/**
+	 * Constructs a new {@code MotionCommand} for the given drive system.
+	 *
+	 * @param drive the drive system that this command moves.
+	 * @param timeout the longest time that the command may run for, in seconds, or zero if
+	 * it may run for any amount of time.
+	 */
+	protected MotionCommand(DriveSystem drive, double timeout) {
+		this.drive = drive;
+		this.timeout = (long) (timeout * 1e9);
+		this.finished = new CountDownLatch(1);
+		this.status = Status.RUNNING;
+		this.task = new Runnable() {
+
+			@Override
+			public void run() {
+				MotionCommand.this.step();
+			}
+
+			@Override
+			public String toString() {
+				return MotionCommand.this.toString();
+			}
+
+		};
+	}
+
+	/**
+	 * Gets the drive system that this command moves.
+	 *
+	 * @return the drive system.
+	 */
+	public DriveSystem getDriveSystem() {
+		return this.drive;
+	}
+
+	/**
+	 * Gets the time between the current cycle of this command and the one before it. On a
+	 * scheduler with a fixed cycle period, this is always the cycle period; on a
+	 * free-running scheduler, it is measured in every cycle. This is only known while
+	 * {@link #initialize()} or {@link #execute()} is running.
+	 *
+	 * @return the time between cycles, in seconds.
+	 */
+	protected double getPeriod() {
+		return this.period;
+	}
+
+	/**
+	 * Starts the movement of this command. This is called once, in the first cycle of the
+	 * command.
+	 */
+	protected abstract void initialize();
+
+	/**
+	 * Updates the movement of this command. This is called once every cycle until it
+	 * returns {@code true}.
+	 *
+	 * @return {@code true} if the movement is finished.
+	 */
+	protected abstract boolean execute();
+
+	/**
+	 * Gets the current state of this command.
+	 *
+	 * @return the state of this command.
+	 */
+	public Status getStatus() {
+		return this.status;
+	}
+
+	/**
+	 * Determines if this command has finished, in any way.
+	 *
+	 * @return {@code true} if this command has finished.
+	 */
+	public boolean isDone() {
+		return this.status != Status.RUNNING;
+	}
+
+	/**
+	 * Cancels this command, and halts the drive system. The drive system is halted before
+	 * this method returns, and this command will not move it again.
+	 *
+	 * @return {@code true} if this command was cancelled by this call, or {@code false} if
+	 * it had already finished.
+	 */
+	public synchronized boolean cancel() {
+		if (this.status != Status.RUNNING) {
+			return false;
+		}
+		this.finish(Status.CANCELLED);
+		return true;
+	}
+
+	/**
+	 * Waits for this command to finish. If the waiting thread is interrupted, this command
+	 * is cancelled.
+	 *
+	 * @return {@code true} if this command completed its movement, or {@code false} if it
+	 * was cancelled, timed out, or the wait was interrupted.
+	 */
+	public boolean await() {
+		try {
+			this.finished.await();
+		} catch (InterruptedException e) {
+			this.cancel();
+			Thread.currentThread().interrupt();
+		}
+		return this.status == Status.COMPLETED;
+	}
+
+	/**
+	 * Waits at most the given amount of time for this command to finish. The command keeps
+	 * running if the wait runs out. If the waiting thread is interrupted, this command is
+	 * cancelled.
+	 *
+	 * @param seconds the longest time to wait.
+	 * @return {@code true} if this command completed its movement, or {@code false} if it
+	 * has not completed it.
+	 */
+	public boolean await(double seconds) {
+		try {
+			this.finished.await((long) (seconds * 1e9), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			this.cancel();
+			Thread.currentThread().interrupt();
+		}
+		return this.status == Status.COMPLETED;
+	}
+
+	/**
+	 * Starts running this command on the given scheduler, as a task that runs in every
+	 * cycle. The command is removed from the scheduler when it finishes.
+	 *
+	 * @param scheduler the scheduler to run this command on.
+	 * @throws IllegalStateException if this command has already been started.
+	 */
+	final synchronized void start(TaskScheduler scheduler) {
+		if (this.scheduler != null) {
+			throw new IllegalStateException("Command has already been started: " + this);
+		}
+		this.scheduler = scheduler;
+		if (this.status != Status.RUNNING) {
+			return;
+		}
+		this.cyclePeriod = scheduler.getCyclePeriod() * 1000000L;
+		this.lastStepTime = System.nanoTime();
+		scheduler.registerTask(this.task);
+	}
+
+	/**
+	 * Runs one cycle of this command.
+	 */
+	private synchronized void step() {
+		if (this.status != Status.RUNNING) {
+			return;
+		}
+		long now = System.nanoTime();
+		if (this.cyclePeriod > 0) {
+			this.period = this.cyclePeriod / 1e9;
+		} else {
+			this.period = Math.max(1, now - this.lastStepTime) / 1e9;
+		}
+		this.lastStepTime = now;
+		if (this.initialized && this.timeout > 0 && now - this.startTime >= this.timeout) {
+			this.finish(Status.TIMED_OUT);
+			return;
+		}
+		boolean done;
+		try {
+			if (!this.initialized) {
+				this.initialized = true;
+				this.startTime = now;
+				this.initialize();
+			}
+			done = this.execute();
+		} catch (RuntimeException e) {
+			this.finish(Status.CANCELLED);
+			throw e;
+		}
+		if (done) {
+			this.finish(Status.COMPLETED);
+		}
+	}
+
+	/**
+	 * Finishes this command with the given state, halts the drive system, and releases
+	 * any threads that are waiting for this command.
+	 *
+	 * @param status the state to finish with.
+	 */
+	private void finish(Status status) {
+		this.status = status;
+		if (this.scheduler != null) {
+			this.scheduler.removeTask(this.task);
+		}
+		try {
+			this.drive.halt();
+		} finally {
+			this.finished.countDown();
+		}
+	}
+
+}
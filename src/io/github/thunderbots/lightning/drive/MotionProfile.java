@@ -0,0 +1,346 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.drive;
+
+import io.github.thunderbots.lightning.scheduler.TaskScheduler;
+
+/**
+ * A {@code MotionProfile} is a plan for moving a given distance, starting and ending at
+ * rest, without exceeding a maximum velocity and acceleration, and optionally a maximum
+ * jerk. The plan is precomputed into arrays of position, velocity and acceleration
+ * setpoints, one for each cycle of a task scheduler, so following it only requires
+ * looking up the setpoints for the current time.
+ * <p>
+ * A trapezoidal profile accelerates at the maximum acceleration, cruises at the maximum
+ * velocity, and decelerates at the maximum acceleration. An S-curve profile also limits
+ * the jerk, so the acceleration ramps up and down instead of changing all at once. If the
+ * distance is too short to reach the maximum velocity or acceleration, the profile uses
+ * the largest values that it can reach. Both shapes are calculated exactly, segment by
+ * segment, so generating a profile only takes time in proportion to its length.
+ * <p>
+ * The units of a profile are up to the user; they are usually inches or degrees, and
+ * seconds.
+ *
+ * @author Zach Ohara
+ * @see DriveSystem#driveProfileAsync(MotionProfile)
+ */
+public final class MotionProfile {
+
+	/**
+	 * The time between consecutive setpoints, in seconds.
+	 */
+	private final double period;
+
+	/**
+	 * The total time of the profile, in seconds.
+	 */
+	private final double duration;
+
+	/**
+	 * The position setpoints.
+	 */
+	private final double[] positions;
+
+	/**
+	 * The velocity setpoints.
+	 */
+	private final double[] velocities;
+
+	/**
+	 * The acceleration setpoints.
+	 */
+	private final double[] accelerations;
+
+	/**
+	 * Constructs a new {@code MotionProfile} by sampling the given segments. Each segment
+	 * has a constant jerk, and starts with a given acceleration; the position and
+	 * velocity are continuous between segments.
+	 *
+	 * @param sign the direction of the profile, either 1 or -1.
+	 * @param distance the magnitude of the distance of the profile.
+	 * @param times the duration of each segment.
+	 * @param startAccelerations the acceleration at the start of each segment.
+	 * @param jerks the jerk of each segment.
+	 * @param period the time between consecutive setpoints.
+	 */
+	private MotionProfile(double sign, double distance, double[] times,
+			double[] startAccelerations, double[] jerks, double period) {
+		int segments = times.length;
+		double[] startPositions = new double[segments];
+		double[] startVelocities = new double[segments];
+		double duration = 0;
+		double p = 0;
+		double v = 0;
+		for (int i = 0; i < segments; i++) {
+			startPositions[i] = p;
+			startVelocities[i] = v;
+			double t = times[i];
+			double a = startAccelerations[i];
+			double j = jerks[i];
+			p += t * (v + t * (a / 2 + t * j / 6));
+			v += t * (a + t * j / 2);
+			duration += t;
+		}
+		int count = (int) Math.ceil(duration / period) + 1;
+		this.period = period;
+		this.duration = duration;
+		this.positions = new double[count];
+		this.velocities = new double[count];
+		this.accelerations = new double[count];
+		int segment = 0;
+		double segmentStart = 0;
+		for (int i = 0; i < count - 1; i++) {
+			double time = i * period;
+			while (segment < segments - 1 && time >= segmentStart + times[segment]) {
+				segmentStart += times[segment];
+				segment++;
+			}
+			double t = time - segmentStart;
+			double a = startAccelerations[segment];
+			double j = jerks[segment];
+			v = startVelocities[segment];
+			this.positions[i] = sign
+					* (startPositions[segment] + t * (v + t * (a / 2 + t * j / 6)));
+			this.velocities[i] = sign * (v + t * (a + t * j / 2));
+			this.accelerations[i] = sign * (a + t * j);
+		}
+		this.positions[count - 1] = sign * distance;
+	}
+
+	/**
+	 * Creates a trapezoidal profile with setpoints for every default cycle of the task
+	 * scheduler.
+	 *
+	 * @param distance the distance to move; may be negative.
+	 * @param maxVelocity the maximum velocity.
+	 * @param maxAcceleration the maximum acceleration.
+	 * @return the profile.
+	 * @throws IllegalArgumentException if a limit is not positive.
+	 */
+	public static MotionProfile trapezoidal(double distance, double maxVelocity,
+			double maxAcceleration) {
+		return MotionProfile.trapezoidal(distance, maxVelocity, maxAcceleration,
+				TaskScheduler.DEFAULT_CYCLE_PERIOD / 1000.0);
+	}
+
+	/**
+	 * Creates a trapezoidal profile with setpoints at the given period.
+	 *
+	 * @param distance the distance to move; may be negative.
+	 * @param maxVelocity the maximum velocity.
+	 * @param maxAcceleration the maximum acceleration.
+	 * @param period the time between consecutive setpoints, in seconds.
+	 * @return the profile.
+	 * @throws IllegalArgumentException if a limit or the period is not positive.
+	 */
+	public static MotionProfile trapezoidal(double distance, double maxVelocity,
+			double maxAcceleration, double period) {
+		MotionProfile.checkPositive("Maximum velocity", maxVelocity);
+		MotionProfile.checkPositive("Maximum acceleration", maxAcceleration);
+		MotionProfile.checkPositive("Period", period);
+		double d = Math.abs(distance);
+		double v = Math.min(maxVelocity, Math.sqrt(d * maxAcceleration));
+		double accelTime = v / maxAcceleration;
+		double cruiseTime = v > 0 ? (d - v * accelTime) / v : 0;
+		return new MotionProfile(Math.signum(distance), d,
+				new double[] {accelTime, cruiseTime, accelTime},
+				new double[] {maxAcceleration, 0, -maxAcceleration},
+				new double[] {0, 0, 0}, period);
+	}
+
+	/**
+	 * Creates an S-curve profile with setpoints for every default cycle of the task
+	 * scheduler.
+	 *
+	 * @param distance the distance to move; may be negative.
+	 * @param maxVelocity the maximum velocity.
+	 * @param maxAcceleration the maximum acceleration.
+	 * @param maxJerk the maximum jerk.
+	 * @return the profile.
+	 * @throws IllegalArgumentException if a limit is not positive.
+	 */
+	public static MotionProfile sCurve(double distance, double maxVelocity,
+			double maxAcceleration, double maxJerk) {
+		return MotionProfile.sCurve(distance, maxVelocity, maxAcceleration, maxJerk,
+				TaskScheduler.DEFAULT_CYCLE_PERIOD / 1000.0);
+	}
+
+	/**
+	 * Creates an S-curve profile with setpoints at the given period. The profile has
+	 * seven segments: the acceleration ramps up, holds, and ramps down to reach the
+	 * cruise velocity, which is held, and then the same happens in reverse. Segments that
+	 * are not needed to reach a short distance have no duration.
+	 *
+	 * @param distance the distance to move; may be negative.
+	 * @param maxVelocity the maximum velocity.
+	 * @param maxAcceleration the maximum acceleration.
+	 * @param maxJerk the maximum jerk.
+	 * @param period the time between consecutive setpoints, in seconds.
+	 * @return the profile.
+	 * @throws IllegalArgumentException if a limit or the period is not positive.
+	 */
+	public static MotionProfile sCurve(double distance, double maxVelocity,
+			double maxAcceleration, double maxJerk, double period) {
+		MotionProfile.checkPositive("Maximum velocity", maxVelocity);
+		MotionProfile.checkPositive("Maximum acceleration", maxAcceleration);
+		MotionProfile.checkPositive("Maximum jerk", maxJerk);
+		MotionProfile.checkPositive("Period", period);
+		double d = Math.abs(distance);
+		double a = maxAcceleration;
+		double j = maxJerk;
+		// the velocity above which the maximum acceleration can be reached
+		double fullAccelVelocity = a * a / j;
+		double v = maxVelocity;
+		if (2 * MotionProfile.sCurveAccelDistance(v, a, j) > d) {
+			// the cruise velocity cannot be reached; find the one that covers the distance
+			v = a / 2 * (Math.sqrt(a * a / (j * j) + 4 * d / a) - a / j);
+			if (v < fullAccelVelocity) {
+				v = Math.pow(d * Math.sqrt(j) / 2, 2.0 / 3.0);
+			}
+		}
+		double rampTime;
+		double holdTime;
+		if (v < fullAccelVelocity) {
+			rampTime = Math.sqrt(v / j);
+			holdTime = 0;
+		} else {
+			rampTime = a / j;
+			holdTime = v / a - rampTime;
+		}
+		double peak = j * rampTime;
+		double cruiseTime = 0;
+		if (v > 0) {
+			cruiseTime = (d - 2 * MotionProfile.sCurveAccelDistance(v, a, j)) / v;
+			cruiseTime = Math.max(0, cruiseTime);
+		}
+		return new MotionProfile(Math.signum(distance), d,
+				new double[] {rampTime, holdTime, rampTime, cruiseTime, rampTime, holdTime,
+						rampTime},
+				new double[] {0, peak, peak, 0, 0, -peak, -peak},
+				new double[] {j, 0, -j, 0, -j, 0, j}, period);
+	}
+
+	/**
+	 * Calculates the distance that an S-curve profile covers while accelerating from rest
+	 * to the given velocity.
+	 *
+	 * @param v the velocity to accelerate to.
+	 * @param a the maximum acceleration.
+	 * @param j the maximum jerk.
+	 * @return the distance covered while accelerating.
+	 */
+	private static double sCurveAccelDistance(double v, double a, double j) {
+		if (v < a * a / j) {
+			return v * Math.sqrt(v / j);
+		}
+		return v * (v / a + a / j) / 2;
+	}
+
+	/**
+	 * Checks that the given value is positive.
+	 *
+	 * @param name the name of the value.
+	 * @param value the value to check.
+	 * @throws IllegalArgumentException if the value is not positive.
+	 */
+	private static void checkPositive(String name, double value) {
+		if (!(value > 0) || Double.isInfinite(value)) {
+			throw new IllegalArgumentException(name + " must be positive and finite: "
+					+ value);
+		}
+	}
+
+	/**
+	 * Gets the time between consecutive setpoints of this profile.
+	 *
+	 * @return the period of this profile, in seconds.
+	 */
+	public double getPeriod() {
+		return this.period;
+	}
+
+	/**
+	 * Gets the total time of this profile.
+	 *
+	 * @return the duration of this profile, in seconds.
+	 */
+	public double getDuration() {
+		return this.duration;
+	}
+
+	/**
+	 * Gets the number of setpoints in this profile. The first setpoint is at the start of
+	 * the profile, and the last is at its end.
+	 *
+	 * @return the number of setpoints.
+	 */
+	public int getLength() {
+		return this.positions.length;
+	}
+
+	/**
+	 * Gets the distance that this profile moves.
+	 *
+	 * @return the final position of this profile.
+	 */
+	public double getDistance() {
+		return this.positions[this.positions.length - 1];
+	}
+
+	/**
+	 * Gets the index of the setpoint for the given time since the start of this profile.
+	 *
+	 * @param seconds the time since the start of the profile.
+	 * @return the index of the setpoint at or just before the given time, limited to the
+	 * range of setpoints.
+	 */
+	public int getIndex(double seconds) {
+		int index = (int) (seconds / this.period);
+		return Math.max(0, Math.min(this.positions.length - 1, index));
+	}
+
+	/**
+	 * Gets the position setpoint with the given index.
+	 *
+	 * @param index the index of the setpoint.
+	 * @return the position setpoint.
+	 */
+	public double getPosition(int index) {
+		return this.positions[index];
+	}
+
+	/**
+	 * Gets the velocity setpoint with the given index.
+	 *
+	 * @param index the index of the setpoint.
+	 * @return the velocity setpoint.
+	 */
+	public double getVelocity(int index) {
+		return this.velocities[index];
+	}
+
+	/**
+	 * Gets the acceleration setpoint with the given index.
+	 *
+	 * @param index the index of the setpoint.
+	 * @return the acceleration setpoint.
+	 */
+	public double getAcceleration(int index) {
+		return this.accelerations[index];
+	}
+
+}
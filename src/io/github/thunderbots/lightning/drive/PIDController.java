@@ -0,0 +1,342 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.drive;
+
+import io.github.thunderbots.lightning.scheduler.TaskScheduler;
+
+/**
+ * A {@code PIDController} is a proportional-integral-derivative controller with a
+ * feedforward term. Given a setpoint and a measurement of the value that the setpoint is
+ * for, it calculates the output that should be applied to move the measurement towards
+ * the setpoint. The same controller can be used to control a position, or a velocity; in
+ * the latter case, the feedforward term usually does most of the work.
+ * <p>
+ * The controller is meant to be updated once every cycle of a task scheduler, so it
+ * assumes a fixed time between updates, given by {@link #setPeriod(double)}, instead of
+ * measuring it. The derivative term is calculated from the change in the measurement
+ * rather than the change in the error, so that moving the setpoint does not kick the
+ * output. A setpoint that moves smoothly, such as one that follows a motion profile, can
+ * give its own rate of change to {@link #calculate(double, double)}, so that the
+ * derivative term damps the error instead of the velocity. The integral term stops
+ * accumulating while the output is saturated in the direction of the error.
+ * <p>
+ * A controller keeps state between updates, so each movement should use its own
+ * controller. The copy constructor copies the configuration of a controller without its
+ * state.
+ *
+ * @author Zach Ohara
+ */
+public final class PIDController {
+
+	/**
+	 * The proportional gain.
+	 */
+	private double kP;
+
+	/**
+	 * The integral gain.
+	 */
+	private double kI;
+
+	/**
+	 * The derivative gain.
+	 */
+	private double kD;
+
+	/**
+	 * The feedforward gain, which is multiplied by the setpoint.
+	 */
+	private double kF;
+
+	/**
+	 * The largest magnitude of the output.
+	 */
+	private double maxOutput;
+
+	/**
+	 * The time between updates, in seconds.
+	 */
+	private double period;
+
+	/**
+	 * The largest error that is considered to be at the setpoint.
+	 */
+	private double tolerance;
+
+	/**
+	 * The largest rate of change of the error that is considered to be at the setpoint.
+	 */
+	private double rateTolerance;
+
+	/**
+	 * The value that the controller is trying to reach.
+	 */
+	private double setpoint;
+
+	/**
+	 * The accumulated error, multiplied by time.
+	 */
+	private double integral;
+
+	/**
+	 * The error in the last update.
+	 */
+	private double error;
+
+	/**
+	 * The rate of change of the error in the last update.
+	 */
+	private double errorRate;
+
+	/**
+	 * The measurement in the last update.
+	 */
+	private double lastMeasurement;
+
+	/**
+	 * Determines if the controller has been updated since it was last reset.
+	 */
+	private boolean updated;
+
+	/**
+	 * Constructs a new {@code PIDController} with the given gains, no feedforward, an
+	 * output limit of 1, and a period equal to the default cycle period of the task
+	 * scheduler.
+	 *
+	 * @param kP the proportional gain.
+	 * @param kI the integral gain.
+	 * @param kD the derivative gain.
+	 */
+	public PIDController(double kP, double kI, double kD) {
+		this(kP, kI, kD, 0);
+	}
+
+	/**
+	 * Constructs a new {@code PIDController} with the given gains, an output limit of 1,
+	 * and a period equal to the default cycle period of the task scheduler.
+	 *
+	 * @param kP the proportional gain.
+	 * @param kI the integral gain.
+	 * @param kD the derivative gain.
+	 * @param kF the feedforward gain.
+	 */
+	public PIDController(double kP, double kI, double kD, double kF) {
+		this.kP = kP;
+		this.kI = kI;
+		this.kD = kD;
+		this.kF = kF;
+		this.maxOutput = 1;
+		this.period = TaskScheduler.DEFAULT_CYCLE_PERIOD / 1000.0;
+		this.tolerance = 0;
+		this.rateTolerance = Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Constructs a new {@code PIDController} with the same gains, output limit, period,
+	 * tolerances and setpoint as the given controller, but none of its state.
+	 *
+	 * @param other the controller to copy.
+	 */
+	public PIDController(PIDController other) {
+		this(other.kP, other.kI, other.kD, other.kF);
+		this.maxOutput = other.maxOutput;
+		this.period = other.period;
+		this.tolerance = other.tolerance;
+		this.rateTolerance = other.rateTolerance;
+		this.setpoint = other.setpoint;
+	}
+
+	/**
+	 * Sets the gains of this controller.
+	 *
+	 * @param kP the proportional gain.
+	 * @param kI the integral gain.
+	 * @param kD the derivative gain.
+	 * @param kF the feedforward gain.
+	 */
+	public void setGains(double kP, double kI, double kD, double kF) {
+		this.kP = kP;
+		this.kI = kI;
+		this.kD = kD;
+		this.kF = kF;
+	}
+
+	/**
+	 * Sets the largest magnitude of the output of this controller.
+	 *
+	 * @param maxOutput the largest magnitude of the output.
+	 * @throws IllegalArgumentException if the limit is not positive.
+	 */
+	public void setOutputLimit(double maxOutput) {
+		if (!(maxOutput > 0)) {
+			throw new IllegalArgumentException("Output limit must be positive: "
+					+ maxOutput);
+		}
+		this.maxOutput = maxOutput;
+	}
+
+	/**
+	 * Sets the time between updates of this controller.
+	 *
+	 * @param seconds the time between updates, in seconds.
+	 * @throws IllegalArgumentException if the period is not positive.
+	 */
+	public void setPeriod(double seconds) {
+		if (!(seconds > 0)) {
+			throw new IllegalArgumentException("Period must be positive: " + seconds);
+		}
+		this.period = seconds;
+	}
+
+	/**
+	 * Gets the time between updates of this controller.
+	 *
+	 * @return the time between updates, in seconds.
+	 */
+	public double getPeriod() {
+		return this.period;
+	}
+
+	/**
+	 * Sets how close the measurement must be to the setpoint for the controller to be at
+	 * the setpoint. The rate of change of the error is not considered.
+	 * <p>
+	 * A controller that is used for the closed-loop movements of a {@code DriveSystem}
+	 * must have a tolerance that is not zero. The movement only finishes once the
+	 * controller is at its setpoint, and a measurement made from whole encoder ticks would
+	 * almost never be exactly at it.
+	 *
+	 * @param tolerance the largest error that is at the setpoint.
+	 */
+	public void setTolerance(double tolerance) {
+		this.setTolerance(tolerance, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Sets how close the measurement must be to the setpoint, and how slowly the error
+	 * must be changing, for the controller to be at the setpoint.
+	 *
+	 * @param tolerance the largest error that is at the setpoint.
+	 * @param rateTolerance the largest rate of change of the error, per second, that is at
+	 * the setpoint.
+	 */
+	public void setTolerance(double tolerance, double rateTolerance) {
+		this.tolerance = Math.abs(tolerance);
+		this.rateTolerance = Math.abs(rateTolerance);
+	}
+
+	/**
+	 * Gets how close the measurement must be to the setpoint for the controller to be at
+	 * the setpoint.
+	 *
+	 * @return the largest error that is at the setpoint.
+	 */
+	public double getTolerance() {
+		return this.tolerance;
+	}
+
+	/**
+	 * Sets the value that this controller is trying to reach.
+	 *
+	 * @param setpoint the new setpoint.
+	 */
+	public void setSetpoint(double setpoint) {
+		this.setpoint = setpoint;
+	}
+
+	/**
+	 * Gets the value that this controller is trying to reach.
+	 *
+	 * @return the setpoint.
+	 */
+	public double getSetpoint() {
+		return this.setpoint;
+	}
+
+	/**
+	 * Gets the error in the last update of this controller.
+	 *
+	 * @return the difference between the setpoint and the last measurement.
+	 */
+	public double getError() {
+		return this.error;
+	}
+
+	/**
+	 * Determines if the last measurement was at the setpoint, within the tolerances of
+	 * this controller.
+	 *
+	 * @return {@code true} if the controller is at the setpoint.
+	 */
+	public boolean atSetpoint() {
+		return this.updated && Math.abs(this.error) <= this.tolerance
+				&& Math.abs(this.errorRate) <= this.rateTolerance;
+	}
+
+	/**
+	 * Clears the state of this controller, so that the next update is treated as the
+	 * first.
+	 */
+	public void reset() {
+		this.integral = 0;
+		this.error = 0;
+		this.errorRate = 0;
+		this.updated = false;
+	}
+
+	/**
+	 * Updates this controller with a new measurement, and calculates its output. The
+	 * setpoint is assumed to be standing still.
+	 *
+	 * @param measurement the current value of the controlled quantity.
+	 * @return the output of the controller, limited to the output limit.
+	 */
+	public double calculate(double measurement) {
+		return this.calculate(measurement, 0);
+	}
+
+	/**
+	 * Updates this controller with a new measurement and the rate that the setpoint is
+	 * moving at, and calculates its output. The derivative term acts on the difference
+	 * between the rate of the setpoint and the rate of the measurement.
+	 *
+	 * @param measurement the current value of the controlled quantity.
+	 * @param setpointRate the rate of change of the setpoint, per second.
+	 * @return the output of the controller, limited to the output limit.
+	 */
+	public double calculate(double measurement, double setpointRate) {
+		double error = this.setpoint - measurement;
+		double derivative = 0;
+		if (this.updated) {
+			this.errorRate = (error - this.error) / this.period;
+			derivative = setpointRate - (measurement - this.lastMeasurement) / this.period;
+		}
+		this.error = error;
+		this.lastMeasurement = measurement;
+		this.updated = true;
+		double base = this.kP * error + this.kD * derivative + this.kF * this.setpoint;
+		double integral = this.integral + error * this.period;
+		double output = base + this.kI * integral;
+		if (Math.abs(output) <= this.maxOutput || output * error < 0) {
+			this.integral = integral;
+		} else {
+			output = base + this.kI * this.integral;
+		}
+		return Math.max(-this.maxOutput, Math.min(this.maxOutput, output));
+	}
+
+}
@@ -0,0 +1,210 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.drive;
+
+/**
+ * A {@code Path} is a route across the field for the robot to follow, stored as a dense
+ * sequence of points along with the distance along the path to each point. The distances
+ * let a follower find the point a given distance ahead of the robot by walking forward
+ * from where it last looked, instead of searching the whole path.
+ * <p>
+ * A path can be made from waypoints by joining them with straight lines, or by passing a
+ * smooth curve through them. Coordinates use the same field axes as {@link Pose}.
+ *
+ * @author Zach Ohara
+ * @see PathFollower
+ */
+public final class Path {
+
+	/**
+	 * The x coordinates of the points of the path.
+	 */
+	private final double[] xs;
+
+	/**
+	 * The y coordinates of the points of the path.
+	 */
+	private final double[] ys;
+
+	/**
+	 * The distance along the path to each point.
+	 */
+	private final double[] distances;
+
+	/**
+	 * Constructs a new {@code Path} through the given points.
+	 *
+	 * @param xs the x coordinates of the points.
+	 * @param ys the y coordinates of the points.
+	 */
+	private Path(double[] xs, double[] ys) {
+		this.xs = xs;
+		this.ys = ys;
+		this.distances = new double[xs.length];
+		for (int i = 1; i < xs.length; i++) {
+			this.distances[i] = this.distances[i - 1]
+					+ Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]);
+		}
+	}
+
+	/**
+	 * Creates a path that joins the given waypoints with straight lines.
+	 *
+	 * @param coordinates the coordinates of the waypoints, as x and y pairs.
+	 * @return the path.
+	 * @throws IllegalArgumentException if there are fewer than two waypoints, or an odd
+	 * number of coordinates.
+	 */
+	public static Path polyline(double... coordinates) {
+		int count = Path.checkWaypoints(coordinates);
+		double[] xs = new double[count];
+		double[] ys = new double[count];
+		for (int i = 0; i < count; i++) {
+			xs[i] = coordinates[2 * i];
+			ys[i] = coordinates[2 * i + 1];
+		}
+		return new Path(xs, ys);
+	}
+
+	/**
+	 * Creates a path that passes a smooth curve through the given waypoints. The curve is
+	 * a Catmull-Rom spline, which passes through every waypoint and turns smoothly at
+	 * each one, and it is stored as points that are at most about the given spacing
+	 * apart.
+	 *
+	 * @param spacing the largest distance between consecutive points of the path.
+	 * @param coordinates the coordinates of the waypoints, as x and y pairs.
+	 * @return the path.
+	 * @throws IllegalArgumentException if there are fewer than two waypoints, an odd
+	 * number of coordinates, or the spacing is not positive.
+	 */
+	public static Path spline(double spacing, double... coordinates) {
+		int count = Path.checkWaypoints(coordinates);
+		if (!(spacing > 0)) {
+			throw new IllegalArgumentException("Spacing must be positive: " + spacing);
+		}
+		int[] steps = new int[count - 1];
+		int total = 1;
+		for (int i = 0; i < count - 1; i++) {
+			double length = Math.hypot(coordinates[2 * i + 2] - coordinates[2 * i],
+					coordinates[2 * i + 3] - coordinates[2 * i + 1]);
+			steps[i] = Math.max(1, (int) Math.ceil(length / spacing));
+			total += steps[i];
+		}
+		double[] xs = new double[total];
+		double[] ys = new double[total];
+		int index = 0;
+		for (int i = 0; i < count - 1; i++) {
+			int before = Math.max(0, i - 1);
+			int after = Math.min(count - 1, i + 2);
+			for (int step = 0; step < steps[i]; step++) {
+				double t = (double) step / steps[i];
+				xs[index] = Path.catmullRom(coordinates[2 * before], coordinates[2 * i],
+						coordinates[2 * i + 2], coordinates[2 * after], t);
+				ys[index] = Path.catmullRom(coordinates[2 * before + 1],
+						coordinates[2 * i + 1], coordinates[2 * i + 3],
+						coordinates[2 * after + 1], t);
+				index++;
+			}
+		}
+		xs[index] = coordinates[2 * count - 2];
+		ys[index] = coordinates[2 * count - 1];
+		return new Path(xs, ys);
+	}
+
+	/**
+	 * Evaluates one coordinate of a uniform Catmull-Rom spline segment.
+	 *
+	 * @param p0 the coordinate of the waypoint before the segment.
+	 * @param p1 the coordinate of the start of the segment.
+	 * @param p2 the coordinate of the end of the segment.
+	 * @param p3 the coordinate of the waypoint after the segment.
+	 * @param t the position along the segment, between 0 and 1.
+	 * @return the coordinate at the given position.
+	 */
+	private static double catmullRom(double p0, double p1, double p2, double p3, double t) {
+		return p1 + 0.5 * t * (p2 - p0 + t * (2 * p0 - 5 * p1 + 4 * p2 - p3
+				+ t * (3 * (p1 - p2) + p3 - p0)));
+	}
+
+	/**
+	 * Checks that the given coordinates describe at least two waypoints.
+	 *
+	 * @param coordinates the coordinates of the waypoints, as x and y pairs.
+	 * @return the number of waypoints.
+	 * @throws IllegalArgumentException if there are fewer than two waypoints, or an odd
+	 * number of coordinates.
+	 */
+	private static int checkWaypoints(double[] coordinates) {
+		if (coordinates.length % 2 != 0) {
+			throw new IllegalArgumentException("Coordinates must be x and y pairs");
+		}
+		if (coordinates.length < 4) {
+			throw new IllegalArgumentException("A path needs at least two waypoints");
+		}
+		return coordinates.length / 2;
+	}
+
+	/**
+	 * Gets the number of points of this path.
+	 *
+	 * @return the number of points.
+	 */
+	public int getPointCount() {
+		return this.xs.length;
+	}
+
+	/**
+	 * Gets the x coordinate of the point with the given index.
+	 *
+	 * @param index the index of the point.
+	 * @return the x coordinate of the point.
+	 */
+	public double getX(int index) {
+		return this.xs[index];
+	}
+
+	/**
+	 * Gets the y coordinate of the point with the given index.
+	 *
+	 * @param index the index of the point.
+	 * @return the y coordinate of the point.
+	 */
+	public double getY(int index) {
+		return this.ys[index];
+	}
+
+	/**
+	 * Gets the distance along this path to the point with the given index.
+	 *
+	 * @param index the index of the point.
+	 * @return the distance along the path to the point.
+	 */
+	public double getDistance(int index) {
+		return this.distances[index];
+	}
+
+	/**
+	 * Gets the total length of this path.
+	 *
+	 * @return the distance along the path to its last point.
+	 */
+	public double getLength() {
+		return this.distances[this.distances.length - 1];
+	}
+
+}
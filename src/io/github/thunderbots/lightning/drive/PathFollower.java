@@ -0,0 +1,323 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.drive;
+
+/**
+ * A {@code PathFollower} is a motion command that steers the robot along a {@code Path}
+ * with the pure pursuit method. In every cycle, it finds the point of the path that the
+ * robot is closest to, picks the point that is the lookahead distance further along the
+ * path, and steers the robot towards that point. The robot drives continuously from the
+ * start of the path to its end, without stopping at the waypoints.
+ * <p>
+ * The position of the robot is read from a {@code PoseTracker}, which must be running
+ * while the path is followed. The closest point and the lookahead point are found by
+ * walking forward from where they were in the last cycle, so each cycle only looks at the
+ * part of the path near the robot, and the robot never jumps back to an earlier part of
+ * the path when the path crosses itself.
+ * <p>
+ * A holonomic drive system, such as a {@code MecanumDrive}, strafes straight towards the
+ * lookahead point, and holds the heading that the robot had when the command started by
+ * turning in proportion to its heading error. A {@code TankDrive} cannot strafe, so it
+ * instead drives along the arc that passes through the lookahead point; the width of its
+ * track is calculated from the encoder ticks in a drive-inch and in a rotation degree,
+ * which must both be set. The command finishes once the robot is within the tolerance
+ * of the end of the path.
+ *
+ * @author Zach Ohara
+ * @see DriveSystem#followPathAsync(Path, PoseTracker, double)
+ */
+public class PathFollower extends MotionCommand {
+
+	/**
+	 * The default distance ahead of the robot, along the path, that it steers towards.
+	 */
+	public static final double DEFAULT_LOOKAHEAD = 12;
+
+	/**
+	 * The default distance from the end of the path that the robot must reach.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1;
+
+	/**
+	 * The smallest fraction of the full power that the robot slows to as it approaches
+	 * the end of the path.
+	 */
+	public static final double MIN_POWER_FRACTION = 0.25;
+
+	/**
+	 * The default clockwise power that a holonomic drive system turns with for each
+	 * degree that the robot is counter-clockwise of the heading it holds.
+	 */
+	public static final double DEFAULT_HEADING_GAIN = 0.02;
+
+	/**
+	 * The tracker of the pose of the robot.
+	 */
+	private final PoseTracker tracker;
+
+	/**
+	 * The path to follow.
+	 */
+	private final Path path;
+
+	/**
+	 * The power to drive with.
+	 */
+	private final double power;
+
+	/**
+	 * The distance ahead of the robot, along the path, that it steers towards.
+	 */
+	private double lookahead;
+
+	/**
+	 * The distance from the end of the path that the robot must reach.
+	 */
+	private double tolerance;
+
+	/**
+	 * Determines if the drive system can strafe.
+	 */
+	private boolean holonomic;
+
+	/**
+	 * The clockwise power that a holonomic drive system turns with for each degree of
+	 * heading error.
+	 */
+	private double headingGain;
+
+	/**
+	 * The heading that a holonomic drive system holds, in degrees clockwise.
+	 */
+	private double holdHeading;
+
+	/**
+	 * The pose of the robot in the current cycle, as its x coordinate, y coordinate and
+	 * heading.
+	 */
+	private final double[] pose;
+
+	/**
+	 * The index of the point of the path that the robot was closest to in the last cycle.
+	 */
+	private int closestIndex;
+
+	/**
+	 * The index of the point of the path at or just before the lookahead point in the
+	 * last cycle.
+	 */
+	private int targetIndex;
+
+	/**
+	 * Constructs a new {@code PathFollower}.
+	 *
+	 * @param drive the drive system to move.
+	 * @param tracker the tracker of the pose of the robot.
+	 * @param path the path to follow.
+	 * @param power the power to drive with; between 0 and 1.
+	 */
+	public PathFollower(DriveSystem drive, PoseTracker tracker, Path path, double power) {
+		super(drive, drive.getMotionTimeout());
+		this.tracker = tracker;
+		this.path = path;
+		this.power = Math.abs(power);
+		this.lookahead = PathFollower.DEFAULT_LOOKAHEAD;
+		this.tolerance = PathFollower.DEFAULT_TOLERANCE;
+		this.headingGain = PathFollower.DEFAULT_HEADING_GAIN;
+		this.holonomic = drive instanceof MecanumDrive && !(drive instanceof TankDrive);
+		this.pose = new double[3];
+	}
+
+	/**
+	 * Sets the distance ahead of the robot, along the path, that it steers towards. A
+	 * longer lookahead follows the path more smoothly, but cuts corners more.
+	 *
+	 * @param lookahead the lookahead distance.
+	 * @throws IllegalArgumentException if the distance is not positive.
+	 */
+	public void setLookahead(double lookahead) {
+		if (!(lookahead > 0)) {
+			throw new IllegalArgumentException("Lookahead must be positive: " + lookahead);
+		}
+		this.lookahead = lookahead;
+	}
+
+	/**
+	 * Sets the distance from the end of the path that the robot must reach for this
+	 * command to finish.
+	 *
+	 * @param tolerance the distance from the end of the path.
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = Math.abs(tolerance);
+	}
+
+	/**
+	 * Sets whether the drive system should strafe towards the lookahead point, instead of
+	 * driving along an arc. This is decided from the type of the drive system by default.
+	 *
+	 * @param holonomic {@code true} if the drive system can strafe.
+	 */
+	public void setHolonomic(boolean holonomic) {
+		this.holonomic = holonomic;
+	}
+
+	/**
+	 * Sets the clockwise power that a holonomic drive system turns with for each degree
+	 * of heading error, to hold the heading that the robot had when this command started.
+	 *
+	 * @param gain the power for each degree of heading error, or zero to not hold the
+	 * heading.
+	 * @throws IllegalArgumentException if the gain is negative.
+	 */
+	public void setHeadingGain(double gain) {
+		if (!(gain >= 0)) {
+			throw new IllegalArgumentException(
+					"Heading gain must not be negative: " + gain);
+		}
+		this.headingGain = gain;
+	}
+
+	@Override
+	protected void initialize() {
+		this.closestIndex = 0;
+		this.targetIndex = 0;
+		this.holdHeading = this.tracker.getHeading();
+		if (!this.holonomic) {
+			DriveSystem drive = this.getDriveSystem();
+			if (!(drive.getEncoderTicksPerDriveInch() > 0)
+					|| !(drive.getEncoderTicksPerRotationDegree() > 0)) {
+				throw new IllegalStateException("Encoder ticks per drive-inch and per "
+						+ "rotation degree must be set to follow a path without strafing");
+			}
+		}
+	}
+
+	@Override
+	protected boolean execute() {
+		Path path = this.path;
+		int last = path.getPointCount() - 1;
+		this.tracker.getPose(this.pose);
+		double x = this.pose[0];
+		double y = this.pose[1];
+		double heading = Math.toRadians(this.pose[2]);
+
+		// walk the closest point forward, no further than the lookahead point
+		int closest = this.closestIndex;
+		double closestDistance = PathFollower.squaredDistance(path, closest, x, y);
+		double limit = path.getDistance(closest) + this.lookahead;
+		for (int i = closest + 1; i <= last && path.getDistance(i) <= limit; i++) {
+			double distance = PathFollower.squaredDistance(path, i, x, y);
+			if (distance < closestDistance) {
+				closest = i;
+				closestDistance = distance;
+			}
+		}
+		this.closestIndex = closest;
+
+		// project the robot onto the segment after the closest point
+		double along = path.getDistance(closest);
+		if (closest < last) {
+			double sx = path.getX(closest + 1) - path.getX(closest);
+			double sy = path.getY(closest + 1) - path.getY(closest);
+			double lengthSquared = sx * sx + sy * sy;
+			if (lengthSquared > 0) {
+				double t = ((x - path.getX(closest)) * sx + (y - path.getY(closest)) * sy)
+						/ lengthSquared;
+				along += Math.max(0, Math.min(1, t)) * Math.sqrt(lengthSquared);
+			}
+		}
+		double remaining = path.getLength() - along;
+		double endDistance = Math.hypot(path.getX(last) - x, path.getY(last) - y);
+		if (endDistance <= this.tolerance && remaining <= this.lookahead) {
+			return true;
+		}
+
+		// walk the lookahead point forward, and interpolate it
+		double goal = Math.min(along + this.lookahead, path.getLength());
+		int target = Math.max(this.targetIndex, closest);
+		while (target < last && path.getDistance(target + 1) < goal) {
+			target++;
+		}
+		this.targetIndex = target;
+		double targetX = path.getX(last);
+		double targetY = path.getY(last);
+		if (target < last) {
+			double segment = path.getDistance(target + 1) - path.getDistance(target);
+			double t = segment > 0 ? (goal - path.getDistance(target)) / segment : 0;
+			targetX = path.getX(target) + t * (path.getX(target + 1) - path.getX(target));
+			targetY = path.getY(target) + t * (path.getY(target + 1) - path.getY(target));
+		}
+
+		double dx = targetX - x;
+		double dy = targetY - y;
+		double distance = Math.hypot(dx, dy);
+		if (distance == 0) {
+			this.getDriveSystem().halt();
+			return false;
+		}
+		double speed = this.power * Math.max(PathFollower.MIN_POWER_FRACTION,
+				Math.min(1, endDistance / this.lookahead));
+		double sin = Math.sin(heading);
+		double cos = Math.cos(heading);
+		double forward = dy * cos + dx * sin;
+		double right = dx * cos - dy * sin;
+		DriveSystem drive = this.getDriveSystem();
+		if (this.holonomic) {
+			double headingError = this.holdHeading - this.pose[2];
+			headingError -= 360 * Math.floor((headingError + 180) / 360);
+			double clockwise = Math.max(-this.power,
+					Math.min(this.power, this.headingGain * headingError));
+			if (drive instanceof MecanumDrive && ((MecanumDrive) drive).isFieldCentric()) {
+				drive.setMovement(speed * dy / distance, speed * dx / distance, clockwise);
+			} else {
+				drive.setMovement(speed * forward / distance, speed * right / distance,
+						clockwise);
+			}
+		} else if (forward <= 0) {
+			// the lookahead point is beside or behind the robot, so turn towards it first
+			drive.setMovement(0, right < 0 ? -speed : speed);
+		} else {
+			double trackWidth = 360 * drive.getEncoderTicksPerRotationDegree()
+					/ (Math.PI * drive.getEncoderTicksPerDriveInch());
+			double curvature = 2 * right / (distance * distance);
+			drive.setMovement(speed, speed * curvature * trackWidth / 2);
+		}
+		return false;
+	}
+
+	/**
+	 * Calculates the squared distance between a point of a path and the given position.
+	 *
+	 * @param path the path.
+	 * @param index the index of the point of the path.
+	 * @param x the x coordinate of the position.
+	 * @param y the y coordinate of the position.
+	 * @return the squared distance.
+	 */
+	private static double squaredDistance(Path path, int index, double x, double y) {
+		double dx = path.getX(index) - x;
+		double dy = path.getY(index) - y;
+		return dx * dx + dy * dy;
+	}
+
+	@Override
+	public String toString() {
+		return "Path follower";
+	}
+
+}
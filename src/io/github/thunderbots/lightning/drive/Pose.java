@@ -0,0 +1,104 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.drive;
+
+/**
+ * A {@code Pose} is the position and heading of the robot on the field at one moment.
+ * Positions are measured from wherever the pose was last set, with x increasing to the
+ * right of the field and y increasing towards the front of the field. The heading is
+ * measured in degrees clockwise from the front of the field, to match
+ * {@link io.github.thunderbots.lightning.sensor.HeadingSource HeadingSource}.
+ * <p>
+ * Poses are immutable.
+ *
+ * @author Zach Ohara
+ * @see PoseTracker
+ */
+public final class Pose {
+
+	/**
+	 * The distance of the robot to the right.
+	 */
+	private final double x;
+
+	/**
+	 * The distance of the robot forward.
+	 */
+	private final double y;
+
+	/**
+	 * The heading of the robot, in degrees clockwise.
+	 */
+	private final double heading;
+
+	/**
+	 * Constructs a new {@code Pose}.
+	 *
+	 * @param x the distance of the robot to the right.
+	 * @param y the distance of the robot forward.
+	 * @param heading the heading of the robot, in degrees clockwise.
+	 */
+	public Pose(double x, double y, double heading) {
+		this.x = x;
+		this.y = y;
+		this.heading = heading;
+	}
+
+	/**
+	 * Gets the distance of the robot to the right.
+	 *
+	 * @return the x coordinate of the robot.
+	 */
+	public double getX() {
+		return this.x;
+	}
+
+	/**
+	 * Gets the distance of the robot forward.
+	 *
+	 * @return the y coordinate of the robot.
+	 */
+	public double getY() {
+		return this.y;
+	}
+
+	/**
+	 * Gets the heading of the robot.
+	 *
+	 * @return the heading of the robot, in degrees clockwise.
+	 */
+	public double getHeading() {
+		return this.heading;
+	}
+
+	/**
+	 * Gets the distance between this pose and the given point.
+	 *
+	 * @param x the x coordinate of the point.
+	 * @param y the y coordinate of the point.
+	 * @return the distance to the point.
+	 */
+	public double distanceTo(double x, double y) {
+		return Math.hypot(x - this.x, y - this.y);
+	}
+
+	@Override
+	public String toString() {
+		return "Pose[x=" + this.x + ", y=" + this.y + ", heading=" + this.heading + "]";
+	}
+
+}
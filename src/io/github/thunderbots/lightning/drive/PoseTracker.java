@@ -0,0 +1,341 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.drive;
+
+import io.github.thunderbots.lightning.hardware.Motor;
+import io.github.thunderbots.lightning.sensor.HeadingSource;
+
+/**
+ * A {@code PoseTracker} estimates the position and heading of the robot on the field
+ * from the encoders of a {@code MecanumDrive} or a {@code TankDrive}. It is meant to be
+ * registered as a task of the master task scheduler, so that it is updated once every
+ * cycle.
+ * <p>
+ * Each update reads every drive encoder once, converts the changes since the last update
+ * into forward, right and clockwise movement of the robot, and adds that movement to the
+ * pose, using the heading halfway through the movement. The update takes constant time
+ * and allocates nothing. The raw encoder positions are used, so resetting the encoders of
+ * the drive system does not disturb the pose. If a heading source such as a gyro is set,
+ * the heading is taken from it instead of from the encoders: the heading of the pose is
+ * the absolute heading of the source plus an offset. The offset is chosen so that the
+ * heading does not jump when the source is set, and so that setting the pose still sets
+ * the heading.
+ * <p>
+ * The encoder ticks per drive-inch of the drive system must be set before the tracker
+ * is updated, and so must the ticks per rotation degree if there is no heading source.
+ * <p>
+ * The pose can be read from any thread without locking. A {@code PoseTracker} is also a
+ * {@code HeadingSource}, so it can be given to
+ * {@link MecanumDrive#setHeadingSource(HeadingSource)} for field-centric movement.
+ *
+ * @author Zach Ohara
+ * @see io.github.thunderbots.lightning.scheduler.TaskScheduler#registerTask(Runnable)
+ */
+public class PoseTracker implements Runnable, HeadingSource {
+
+	/**
+	 * The drive system whose encoders are read.
+	 */
+	private final MecanumDrive drive;
+
+	/**
+	 * The motors of the drive system, in the order front left, front right, back left and
+	 * back right.
+	 */
+	private final Motor[] motors;
+
+	/**
+	 * The raw encoder positions in the last update.
+	 */
+	private final int[] lastPositions;
+
+	/**
+	 * The source of the heading, or {@code null} if the heading is measured by the
+	 * encoders.
+	 */
+	private HeadingSource headingSource;
+
+	/**
+	 * The degrees that are added to the heading given by the heading source to get the
+	 * heading of the pose.
+	 */
+	private double headingOffset;
+
+	/**
+	 * Determines if the heading offset matches the heading of the pose. It is chosen again
+	 * in the next update after the heading source is changed or the pose is set.
+	 */
+	private boolean headingAligned;
+
+	/**
+	 * The amount of ticks that should be expected if the robot strafes right one inch, or
+	 * zero if it is the same as for driving forward.
+	 */
+	private double encoderTicksPerStrafeInch;
+
+	/**
+	 * Determines if the encoders have been read since the tracker was created or the
+	 * heading source was changed.
+	 */
+	private boolean initialized;
+
+	/**
+	 * The number of writes to the pose that have started. The pose is being written while
+	 * this is odd.
+	 */
+	private volatile long sequence;
+
+	/**
+	 * The distance of the robot to the right.
+	 */
+	private volatile double x;
+
+	/**
+	 * The distance of the robot forward.
+	 */
+	private volatile double y;
+
+	/**
+	 * The heading of the robot, in degrees clockwise, between 0 and 360.
+	 */
+	private volatile double heading;
+
+	/**
+	 * Constructs a new {@code PoseTracker} for the given drive system, starting at the
+	 * origin and facing forward.
+	 *
+	 * @param drive the drive system to track.
+	 * @throws IllegalArgumentException if the drive system does not have four motors.
+	 */
+	public PoseTracker(MecanumDrive drive) {
+		Motor[] motors = drive.getMotorSet().getMotorArray();
+		if (motors.length != 4) {
+			throw new IllegalArgumentException("Drive system must have four motors: "
+					+ motors.length);
+		}
+		this.drive = drive;
+		this.motors = motors;
+		this.lastPositions = new int[4];
+	}
+
+	/**
+	 * Sets the source of the heading of the robot. If it is {@code null}, the heading is
+	 * measured by the encoders.
+	 *
+	 * @param headingSource the source of the heading, or {@code null}.
+	 */
+	public synchronized void setHeadingSource(HeadingSource headingSource) {
+		this.headingSource = headingSource;
+		this.initialized = false;
+		this.headingAligned = false;
+	}
+
+	/**
+	 * Sets the amount of ticks that should be expected if the robot strafes right one
+	 * inch. Mecanum wheels usually move the robot a shorter distance per tick when
+	 * strafing than when driving forward.
+	 *
+	 * @param ticks the amount of encoder ticks in one strafe-inch, or zero to use the
+	 * ticks in one drive-inch.
+	 * @throws IllegalArgumentException if the amount of ticks is negative.
+	 */
+	public synchronized void setEncoderTicksPerStrafeInch(double ticks) {
+		if (!(ticks >= 0)) {
+			throw new IllegalArgumentException(
+					"Ticks per strafe-inch must not be negative: " + ticks);
+		}
+		this.encoderTicksPerStrafeInch = ticks;
+	}
+
+	/**
+	 * Reads the encoders, and adds the movement since the last update to the pose.
+	 *
+	 * @throws IllegalStateException if the encoder ticks per drive-inch, or the ticks per
+	 * rotation degree without a heading source, have not been set to a positive number.
+	 */
+	@Override
+	public synchronized void run() {
+		Motor[] motors = this.motors;
+		int[] last = this.lastPositions;
+		int p0 = motors[0].getRawPosition();
+		int p1 = motors[1].getRawPosition();
+		int p2 = motors[2].getRawPosition();
+		int p3 = motors[3].getRawPosition();
+		HeadingSource source = this.headingSource;
+		double sourceHeading = 0;
+		if (source != null) {
+			sourceHeading = source.getHeading();
+			if (!this.headingAligned) {
+				this.headingOffset = this.heading - sourceHeading;
+				this.headingAligned = true;
+			}
+		}
+		if (!this.initialized) {
+			this.initialized = true;
+		} else {
+			double driveTicks = this.drive.getEncoderTicksPerDriveInch();
+			double rotationTicks = this.drive.getEncoderTicksPerRotationDegree();
+			if (!(driveTicks > 0) || (source == null && !(rotationTicks > 0))) {
+				throw new IllegalStateException("Encoder ticks per drive-inch, and per "
+						+ "rotation degree without a heading source, must be set");
+			}
+			int d0 = p0 - last[0];
+			int d1 = p1 - last[1];
+			int d2 = p2 - last[2];
+			int d3 = p3 - last[3];
+			double strafeTicks = this.encoderTicksPerStrafeInch;
+			if (strafeTicks == 0) {
+				strafeTicks = driveTicks;
+			}
+			double forward = (d0 - d1 + d2 - d3) / (4 * driveTicks);
+			double right = (d0 + d1 - d2 - d3) / (4 * strafeTicks);
+			double clockwise;
+			if (source == null) {
+				clockwise = (d0 + d1 + d2 + d3) / (4 * rotationTicks);
+			} else {
+				clockwise = sourceHeading + this.headingOffset - this.heading;
+				clockwise -= 360 * Math.floor((clockwise + 180) / 360);
+			}
+			this.integrate(forward, right, clockwise);
+		}
+		last[0] = p0;
+		last[1] = p1;
+		last[2] = p2;
+		last[3] = p3;
+	}
+
+	/**
+	 * Adds the given movement of the robot to the pose.
+	 *
+	 * @param forward the distance driven forward.
+	 * @param right the distance strafed right.
+	 * @param clockwise the degrees rotated clockwise.
+	 */
+	private void integrate(double forward, double right, double clockwise) {
+		double heading = this.heading;
+		double midpoint = Math.toRadians(heading + clockwise / 2);
+		double sin = Math.sin(midpoint);
+		double cos = Math.cos(midpoint);
+		double x = this.x + forward * sin + right * cos;
+		double y = this.y + forward * cos - right * sin;
+		this.write(x, y, heading + clockwise);
+	}
+
+	/**
+	 * Replaces the pose.
+	 *
+	 * @param x the distance of the robot to the right.
+	 * @param y the distance of the robot forward.
+	 * @param heading the heading of the robot, in degrees clockwise.
+	 */
+	private void write(double x, double y, double heading) {
+		heading -= 360 * Math.floor(heading / 360);
+		this.sequence++;
+		this.x = x;
+		this.y = y;
+		this.heading = heading;
+		this.sequence++;
+	}
+
+	/**
+	 * Sets the current pose of the robot. This is usually done at the start of an
+	 * autonomous op mode, to tell the tracker where the robot starts on the field. If a
+	 * heading source is set, the heading offset is chosen again in the next update so
+	 * that the source keeps giving the heading that is set here.
+	 *
+	 * @param x the distance of the robot to the right.
+	 * @param y the distance of the robot forward.
+	 * @param heading the heading of the robot, in degrees clockwise.
+	 */
+	public synchronized void setPose(double x, double y, double heading) {
+		this.write(x, y, heading);
+		this.headingAligned = false;
+	}
+
+	/**
+	 * Gets the current pose of the robot. The position and heading in the pose are always
+	 * from the same update.
+	 *
+	 * @return the current pose.
+	 */
+	public Pose getPose() {
+		while (true) {
+			long before = this.sequence;
+			double x = this.x;
+			double y = this.y;
+			double heading = this.heading;
+			if ((before & 1) == 0 && this.sequence == before) {
+				return new Pose(x, y, heading);
+			}
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * Copies the current pose of the robot into the given array, as its x coordinate, y
+	 * coordinate and heading. This is the same as {@link #getPose()}, but allocates
+	 * nothing.
+	 *
+	 * @param pose the array to copy the pose into, with a length of at least three.
+	 */
+	public void getPose(double[] pose) {
+		while (true) {
+			long before = this.sequence;
+			pose[0] = this.x;
+			pose[1] = this.y;
+			pose[2] = this.heading;
+			if ((before & 1) == 0 && this.sequence == before) {
+				return;
+			}
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * Gets the current distance of the robot to the right.
+	 *
+	 * @return the x coordinate of the robot.
+	 */
+	public double getX() {
+		return this.x;
+	}
+
+	/**
+	 * Gets the current distance of the robot forward.
+	 *
+	 * @return the y coordinate of the robot.
+	 */
+	public double getY() {
+		return this.y;
+	}
+
+	/**
+	 * Gets the current heading of the robot.
+	 *
+	 * @return the heading of the robot, in degrees clockwise, between 0 and 360.
+	 */
+	@Override
+	public double getHeading() {
+		return this.heading;
+	}
+
+	@Override
+	public String toString() {
+		return "Pose tracker";
+	}
+
+}
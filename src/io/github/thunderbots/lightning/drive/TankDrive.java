@@ -52,6 +52,20 @@ public class TankDrive extends MecanumDrive {
 		super(motornames);
 	}
 
+	/**
+	 * A tank drive system cannot move in field-centric mode, because it cannot strafe.
+	 *
+	 * @param fieldCentric must be {@code false}.
+	 * @throws UnsupportedOperationException if field-centric movement is requested.
+	 */
+	@Override
+	public void setFieldCentric(boolean fieldCentric) {
+		if (fieldCentric) {
+			throw new UnsupportedOperationException("A tank drive cannot be field-centric");
+		}
+		super.setFieldCentric(false);
+	}
+
 	/**
 	 * @deprecated A tank drive system cannot accept a right-facing vector as an argument
 	 * for movement. The purpose of this method is only to filter out any possible
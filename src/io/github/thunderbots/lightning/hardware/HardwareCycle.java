@@ -0,0 +1,342 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.hardware;
+
+import io.github.thunderbots.lightning.scheduler.TickListener;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@code HardwareCycle} batches access to the motors and servos of the robot into the
+ * cycles of the task scheduler, so the hardware is touched at two well-defined points in
+ * each cycle instead of whenever and wherever a task or the op mode happens to use it.
+ * <p>
+ * While the cycle is enabled, setting the power of a {@link Motor} or the position of a
+ * {@link Servo} only stages the new value. Every staged value is written to the hardware
+ * together when the scheduler finishes a cycle, in the order that the devices were
+ * registered, and a value staged more than once in a cycle is only written once. The
+ * encoder of every motor is read once when the scheduler starts a cycle, and every read
+ * of an encoder during the cycle returns that sample.
+ * <p>
+ * Staged values are kept in primitive arrays, one slot for each device, so staging a
+ * value from any thread is a single atomic write and allocates nothing. Every
+ * {@code Motor} or {@code Servo} object for the same physical device shares a slot.
+ * <p>
+ * The number of devices is fixed by {@link #MAX_MOTORS} and {@link #MAX_SERVOS}. A device
+ * that is registered once the cycle is full is simply not attached, and is accessed
+ * directly as if the cycle were disabled.
+ *
+ * @author Zach Ohara
+ * @see io.github.thunderbots.lightning.Lightning#setHardwareCycleEnabled(boolean)
+ */
+public final class HardwareCycle implements TickListener {
+
+	/**
+	 * The largest number of motors that can be attached to the cycle.
+	 */
+	public static final int MAX_MOTORS = 32;
+
+	/**
+	 * The largest number of servos that can be attached to the cycle.
+	 */
+	public static final int MAX_SERVOS = 32;
+
+	/**
+	 * The value of a slot that has nothing staged in it. This is a NaN that
+	 * {@code Double.doubleToLongBits} never returns, so it cannot be confused with a
+	 * staged value.
+	 */
+	private static final long EMPTY = 0x7ff0000000000001L;
+
+	/**
+	 * The motors that are attached to the cycle, indexed by slot. Each motor in this array
+	 * is the one that the staged powers of its slot are written through.
+	 */
+	private final Motor[] motors;
+
+	/**
+	 * The number of motors that are attached to the cycle.
+	 */
+	private volatile int motorCount;
+
+	/**
+	 * The powers that are staged for each motor, as the bits of a {@code double}, or
+	 * {@link #EMPTY}.
+	 */
+	private final AtomicLongArray stagedPowers;
+
+	/**
+	 * The encoder position of each motor, as sampled at the start of the current cycle.
+	 */
+	private final AtomicIntegerArray positions;
+
+	/**
+	 * The number of motors whose encoders were sampled at the start of the current cycle,
+	 * or zero if the encoders should be read directly.
+	 */
+	private volatile int sampledCount;
+
+	/**
+	 * The servos that are attached to the cycle, indexed by slot.
+	 */
+	private final Servo[] servos;
+
+	/**
+	 * The number of servos that are attached to the cycle.
+	 */
+	private volatile int servoCount;
+
+	/**
+	 * The positions that are staged for each servo, as the bits of a {@code double}, or
+	 * {@link #EMPTY}.
+	 */
+	private final AtomicLongArray stagedPositions;
+
+	/**
+	 * Whether writes are staged and encoder reads are sampled.
+	 */
+	private volatile boolean enabled;
+
+	/**
+	 * Constructs a new, disabled {@code HardwareCycle} with no attached devices.
+	 */
+	public HardwareCycle() {
+		this.motors = new Motor[HardwareCycle.MAX_MOTORS];
+		this.stagedPowers = new AtomicLongArray(HardwareCycle.MAX_MOTORS);
+		this.positions = new AtomicIntegerArray(HardwareCycle.MAX_MOTORS);
+		this.servos = new Servo[HardwareCycle.MAX_SERVOS];
+		this.stagedPositions = new AtomicLongArray(HardwareCycle.MAX_SERVOS);
+		for (int i = 0; i < HardwareCycle.MAX_MOTORS; i++) {
+			this.stagedPowers.set(i, HardwareCycle.EMPTY);
+		}
+		for (int i = 0; i < HardwareCycle.MAX_SERVOS; i++) {
+			this.stagedPositions.set(i, HardwareCycle.EMPTY);
+		}
+	}
+
+	/**
+	 * Attaches the given motor to the cycle. If another {@code Motor} object for the same
+	 * physical motor is already attached, the given motor shares its slot.
+	 *
+	 * @param motor the motor to attach.
+	 * @return {@code true} if the motor was attached, or {@code false} if the cycle is
+	 * full.
+	 */
+	public synchronized boolean register(Motor motor) {
+		int count = this.motorCount;
+		int slot = 0;
+		while (slot < count && this.motors[slot].getBaseMotor() != motor.getBaseMotor()) {
+			slot++;
+		}
+		if (slot == HardwareCycle.MAX_MOTORS) {
+			return false;
+		}
+		if (slot == count) {
+			this.motors[slot] = motor;
+			this.motorCount = count + 1;
+		}
+		motor.attach(this, slot);
+		return true;
+	}
+
+	/**
+	 * Attaches the given servo to the cycle. If another {@code Servo} object for the same
+	 * physical servo is already attached, the given servo shares its slot.
+	 *
+	 * @param servo the servo to attach.
+	 * @return {@code true} if the servo was attached, or {@code false} if the cycle is
+	 * full.
+	 */
+	public synchronized boolean register(Servo servo) {
+		int count = this.servoCount;
+		int slot = 0;
+		while (slot < count && this.servos[slot].getBaseServo() != servo.getBaseServo()) {
+			slot++;
+		}
+		if (slot == HardwareCycle.MAX_SERVOS) {
+			return false;
+		}
+		if (slot == count) {
+			this.servos[slot] = servo;
+			this.servoCount = count + 1;
+		}
+		servo.attach(this, slot);
+		return true;
+	}
+
+	/**
+	 * Determines if writes are staged and encoder reads are sampled.
+	 *
+	 * @return {@code true} if the cycle is enabled.
+	 */
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Sets whether writes should be staged and encoder reads sampled. When the cycle is
+	 * disabled, devices are accessed directly. A value that is still staged when the cycle
+	 * is disabled is written at the end of the current cycle, or by {@link #flush()},
+	 * unless a newer value is written to the same device directly first, in which case
+	 * the staged value is discarded.
+	 *
+	 * @param enabled {@code true} if the cycle should be enabled.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			this.sampledCount = 0;
+		}
+	}
+
+	/**
+	 * Samples the encoder of every attached motor, if the cycle is enabled.
+	 *
+	 * @param cycle the number of the cycle.
+	 */
+	@Override
+	public void tickStarted(long cycle) {
+		if (!this.enabled) {
+			return;
+		}
+		int count = this.motorCount;
+		for (int i = 0; i < count; i++) {
+			this.positions.set(i, this.motors[i].readPosition());
+		}
+		this.sampledCount = this.enabled ? count : 0;
+	}
+
+	/**
+	 * Writes every staged value to the hardware.
+	 *
+	 * @param cycle the number of the cycle.
+	 */
+	@Override
+	public void tickFinished(long cycle) {
+		this.flush();
+	}
+
+	/**
+	 * Writes every staged value to the hardware, in the order that the devices were
+	 * attached. This is done at the end of every cycle, and should otherwise only be
+	 * called when the task scheduler is not running.
+	 */
+	public void flush() {
+		int count = this.motorCount;
+		for (int i = 0; i < count; i++) {
+			long bits = this.stagedPowers.getAndSet(i, HardwareCycle.EMPTY);
+			if (bits != HardwareCycle.EMPTY) {
+				this.motors[i].writePower(Double.longBitsToDouble(bits));
+			}
+		}
+		count = this.servoCount;
+		for (int i = 0; i < count; i++) {
+			long bits = this.stagedPositions.getAndSet(i, HardwareCycle.EMPTY);
+			if (bits != HardwareCycle.EMPTY) {
+				this.servos[i].writePosition(Double.longBitsToDouble(bits));
+			}
+		}
+	}
+
+	/**
+	 * Stages a power for the motor in the given slot.
+	 *
+	 * @param slot the slot of the motor.
+	 * @param power the power to stage.
+	 */
+	void stagePower(int slot, double power) {
+		this.stagedPowers.set(slot, Double.doubleToLongBits(power));
+	}
+
+	/**
+	 * Gets the power that is staged for the motor in the given slot.
+	 *
+	 * @param slot the slot of the motor.
+	 * @return the staged power, or {@code NaN} if no power is staged.
+	 */
+	double getStagedPower(int slot) {
+		long bits = this.stagedPowers.get(slot);
+		return bits == HardwareCycle.EMPTY ? Double.NaN : Double.longBitsToDouble(bits);
+	}
+
+	/**
+	 * Discards the power that is staged for the motor in the given slot, if there is one.
+	 * This is done before a power is written directly, so that an older staged power can
+	 * never be written after it.
+	 *
+	 * @param slot the slot of the motor.
+	 */
+	void discardPower(int slot) {
+		this.stagedPowers.set(slot, HardwareCycle.EMPTY);
+	}
+
+	/**
+	 * Discards the position that is staged for the servo in the given slot, if there is
+	 * one. This is done before a position is written directly, so that an older staged
+	 * position can never be written after it.
+	 *
+	 * @param slot the slot of the servo.
+	 */
+	void discardPosition(int slot) {
+		this.stagedPositions.set(slot, HardwareCycle.EMPTY);
+	}
+
+	/**
+	 * Stages a position for the servo in the given slot.
+	 *
+	 * @param slot the slot of the servo.
+	 * @param position the position to stage.
+	 */
+	void stagePosition(int slot, double position) {
+		this.stagedPositions.set(slot, Double.doubleToLongBits(position));
+	}
+
+	/**
+	 * Gets the position that is staged for the servo in the given slot.
+	 *
+	 * @param slot the slot of the servo.
+	 * @return the staged position, or {@code NaN} if no position is staged.
+	 */
+	double getStagedPosition(int slot) {
+		long bits = this.stagedPositions.get(slot);
+		return bits == HardwareCycle.EMPTY ? Double.NaN : Double.longBitsToDouble(bits);
+	}
+
+	/**
+	 * Determines if the encoder of the motor in the given slot has been sampled in the
+	 * current cycle.
+	 *
+	 * @param slot the slot of the motor.
+	 * @return {@code true} if {@link #getPosition(int)} can be used for the motor.
+	 */
+	boolean isSampled(int slot) {
+		return slot < this.sampledCount;
+	}
+
+	/**
+	 * Gets the encoder position of the motor in the given slot, as sampled at the start of
+	 * the current cycle.
+	 *
+	 * @param slot the slot of the motor.
+	 * @return the sampled encoder position.
+	 */
+	int getPosition(int slot) {
+		return this.positions.get(slot);
+	}
+
+}
@@ -38,10 +38,34 @@ public class Motor {
 	private Encoder encoder;
 
 	/**
-	 * The current power of the motor.
+	 * The current power of the motor, which is the power that was last written to the
+	 * hardware.
 	 */
 	private double power;
 
+	/**
+	 * Whether a power has been written to the hardware since this object was constructed.
+	 */
+	private boolean powerWritten;
+
+	/**
+	 * The smallest change of power that is written to the hardware. Every write to a motor
+	 * is sent to the motor controller, so a change smaller than this is skipped. A change
+	 * to exactly {@link #REST_POWER} is always written, so a motor can always be stopped.
+	 */
+	public static final double POWER_EPSILON = 0.005;
+
+	/**
+	 * The hardware cycle that this motor is attached to, or {@code null} if it is not
+	 * attached.
+	 */
+	private HardwareCycle hardwareCycle;
+
+	/**
+	 * The slot of this motor in {@link #hardwareCycle}.
+	 */
+	private int hardwareSlot;
+
 	/**
 	 * The maximum power of the motor.
 	 */
@@ -87,14 +111,49 @@ public class Motor {
 	}
 
 	/**
-	 * Gets the raw encoder position value of this motor.
+	 * Gets the raw encoder position value of this motor. If this motor is attached to an
+	 * enabled {@code HardwareCycle}, this is the position that was sampled at the start of
+	 * the current cycle.
 	 *
 	 * @return the raw encoder value of this motor.
 	 */
 	public int getRawPosition() {
+		HardwareCycle cycle = this.hardwareCycle;
+		if (cycle != null && cycle.isSampled(this.hardwareSlot)) {
+			return cycle.getPosition(this.hardwareSlot);
+		}
+		return this.readPosition();
+	}
+
+	/**
+	 * Reads the encoder position of this motor from the hardware.
+	 *
+	 * @return the raw encoder value of this motor.
+	 */
+	int readPosition() {
 		return this.basemotor.getCurrentPosition();
 	}
 
+	/**
+	 * Gets the {@code DcMotor} that this object is based on.
+	 *
+	 * @return the base motor.
+	 */
+	DcMotor getBaseMotor() {
+		return this.basemotor;
+	}
+
+	/**
+	 * Attaches this motor to a hardware cycle.
+	 *
+	 * @param cycle the hardware cycle.
+	 * @param slot the slot of this motor in the cycle.
+	 */
+	void attach(HardwareCycle cycle, int slot) {
+		this.hardwareSlot = slot;
+		this.hardwareCycle = cycle;
+	}
+
 	/**
 	 * Determines if the motor's output direction is reversed from its inputs.
 	 *
@@ -120,11 +179,19 @@ public class Motor {
 	}
 
 	/**
-	 * Gets the current movement power of this motor.
+	 * Gets the current movement power of this motor. If a power has been staged in a
+	 * {@code HardwareCycle} but not yet written, that power is returned.
 	 *
 	 * @return the current movement power; between -1 and 1.
 	 */
 	public double getPower() {
+		HardwareCycle cycle = this.hardwareCycle;
+		if (cycle != null) {
+			double staged = cycle.getStagedPower(this.hardwareSlot);
+			if (!Double.isNaN(staged)) {
+				return staged;
+			}
+		}
 		try {
 			return this.basemotor.getPower();
 		} catch (Exception e) {
@@ -133,13 +200,44 @@ public class Motor {
 	}
 
 	/**
-	 * Sets the movement power of this motor.
+	 * Sets the movement power of this motor. If the power differs from the power that was
+	 * last written by less than {@link #POWER_EPSILON}, nothing is sent to the motor
+	 * controller. The last written power is kept by this object, so the power should not
+	 * also be set through another {@code Motor} object for the same motor, unless both are
+	 * attached to the same {@code HardwareCycle}.
+	 * <p>
+	 * If this motor is attached to an enabled {@code HardwareCycle}, the power is only
+	 * staged, and is written at the end of the current cycle. Otherwise, it is written
+	 * directly, and any power that is still staged from before is discarded.
 	 *
 	 * @param power the movement power; between -1 and 1.
 	 */
 	public void setPower(double power) {
+		HardwareCycle cycle = this.hardwareCycle;
+		if (cycle != null) {
+			if (cycle.isEnabled()) {
+				cycle.stagePower(this.hardwareSlot, power);
+				return;
+			}
+			cycle.discardPower(this.hardwareSlot);
+		}
+		this.writePower(power);
+	}
+
+	/**
+	 * Writes the given power to the hardware, unless it is too close to the power that was
+	 * last written.
+	 *
+	 * @param power the movement power; between -1 and 1.
+	 */
+	void writePower(double power) {
+		if (this.powerWritten && Math.abs(power - this.power) < Motor.POWER_EPSILON
+				&& (power != Motor.REST_POWER || this.power == Motor.REST_POWER)) {
+			return;
+		}
 		this.basemotor.setPower(power);
 		this.power = power;
+		this.powerWritten = true;
 	}
 
 	/**
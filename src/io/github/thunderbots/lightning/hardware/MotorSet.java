@@ -85,6 +85,9 @@ public class MotorSet {
 	 * assigned the power value at {@code powers[n]}. If the lengths of {@code motors} and
 	 * {@code powers} are mismatched, then all the available pairs will be matched, and the
 	 * extra values in either array will be discarded.
+	 * <p>
+	 * A motor whose power has not changed is not written to again, as described in
+	 * {@link Motor#setPower(double)}, so the same array can be sent on every loop cheaply.
 	 *
 	 * @param powers the power values to assign to the corresponding motors.
 	 */
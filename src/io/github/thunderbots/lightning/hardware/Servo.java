@@ -53,6 +53,17 @@ public class Servo {
 	 */
 	public static final double CENTER_POSITION = (Servo.MIN_POSITION + Servo.MAX_POSITION) / 2;
 
+	/**
+	 * The hardware cycle that this servo is attached to, or {@code null} if it is not
+	 * attached.
+	 */
+	private HardwareCycle hardwareCycle;
+
+	/**
+	 * The slot of this servo in {@link #hardwareCycle}.
+	 */
+	private int hardwareSlot;
+
 	/**
 	 * Constructs a new servo that uses the given robotcore {@code Servo} as a base.
 	 *
@@ -93,23 +104,71 @@ public class Servo {
 	}
 
 	/**
-	 * Gets the current position of this servo.
+	 * Gets the current position of this servo. If a position has been staged in a
+	 * {@code HardwareCycle} but not yet written, that position is returned.
 	 *
 	 * @return the current position of this servo.
 	 */
 	public double getPosition() {
+		HardwareCycle cycle = this.hardwareCycle;
+		if (cycle != null) {
+			double staged = cycle.getStagedPosition(this.hardwareSlot);
+			if (!Double.isNaN(staged)) {
+				return staged;
+			}
+		}
 		return this.baseServo.getPosition();
 	}
 
 	/**
-	 * Moves the servo to the given position.
+	 * Moves the servo to the given position. If this servo is attached to an enabled
+	 * {@code HardwareCycle}, the position is only staged, and is written at the end of
+	 * the current cycle. Otherwise, it is written directly, and any position that is still
+	 * staged from before is discarded.
 	 *
 	 * @param position the position to move to.
 	 */
 	public void moveToPosition(double position) {
+		HardwareCycle cycle = this.hardwareCycle;
+		if (cycle != null) {
+			if (cycle.isEnabled()) {
+				cycle.stagePosition(this.hardwareSlot, position);
+				return;
+			}
+			cycle.discardPosition(this.hardwareSlot);
+		}
+		this.writePosition(position);
+	}
+
+	/**
+	 * Writes the given position to the hardware.
+	 *
+	 * @param position the position to move to.
+	 */
+	void writePosition(double position) {
 		this.baseServo.setPosition(position);
 	}
 
+	/**
+	 * Gets the robotcore {@code Servo} that this object is based on.
+	 *
+	 * @return the base servo.
+	 */
+	com.qualcomm.robotcore.hardware.Servo getBaseServo() {
+		return this.baseServo;
+	}
+
+	/**
+	 * Attaches this servo to a hardware cycle.
+	 *
+	 * @param cycle the hardware cycle.
+	 * @param slot the slot of this servo in the cycle.
+	 */
+	void attach(HardwareCycle cycle, int slot) {
+		this.hardwareSlot = slot;
+		this.hardwareCycle = cycle;
+	}
+
 	/**
 	 * Moves the servo to its current position plus the given increment.
 	 *
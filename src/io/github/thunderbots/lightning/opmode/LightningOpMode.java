@@ -62,16 +62,27 @@ public abstract class LightningOpMode extends LinearOpMode {
 	 */
 	protected abstract void main();
 
+	/**
+	 * Initializes {@code Lightning} and the op mode, waits for the op mode to be started,
+	 * and runs {@link #main()}. However the op mode ends, including by an exception, the
+	 * background task scheduler is shut down before this method returns.
+	 *
+	 * @throws InterruptedException if the op mode is stopped while waiting.
+	 */
 	@Override
 	public final void runOpMode() throws InterruptedException {
-		Lightning.initializeLightning(this);
-		this.initializeOpMode();
-		if (!this.isInitialized) {
-			throw new IllegalStateException("Op mode was not fully initialized. "
-					+ "You are probably missing a call to super.initializeOpMode()");
+		try {
+			Lightning.initializeLightning(this);
+			this.initializeOpMode();
+			if (!this.isInitialized) {
+				throw new IllegalStateException("Op mode was not fully initialized. "
+						+ "You are probably missing a call to super.initializeOpMode()");
+			}
+			this.waitForStart();
+			this.main();
+		} finally {
+			Lightning.shutdownLightning();
 		}
-		this.waitForStart();
-		this.main();
 	}
 
 }
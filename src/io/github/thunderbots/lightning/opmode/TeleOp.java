@@ -20,6 +20,7 @@ import io.github.thunderbots.lightning.Lightning;
 import io.github.thunderbots.lightning.control.Joystick;
 import io.github.thunderbots.lightning.control.layout.ControlLayout;
 import io.github.thunderbots.lightning.control.layout.DriveSpinControlLayout;
+import io.github.thunderbots.lightning.control.layout.HolonomicControlLayout;
 
 /**
  * The TeleOp class is a base class that all tele-op programs should extend. It will handle
@@ -35,9 +36,17 @@ public abstract class TeleOp extends SimpleOpMode {
 	 */
 	private ControlLayout joystickLayout;
 
+	/**
+	 * The control layout of the driving joystick, if it can control strafing, or
+	 * {@code null} otherwise. This is found once, so the main loop does not have to check
+	 * the type of the layout.
+	 */
+	private HolonomicControlLayout holonomicLayout;
+
 	@Override
 	protected void main() {
 		while (this.opModeIsActive()) {
+			Lightning.dispatchJoystickEvents();
 			this.setMovement();
 			this.mainLoop();
 		}
@@ -47,16 +56,25 @@ public abstract class TeleOp extends SimpleOpMode {
 	protected void initializeOpMode() {
 		super.initializeOpMode();
 		this.joystickLayout = this.createControlLayout();
+		if (this.joystickLayout instanceof HolonomicControlLayout) {
+			this.holonomicLayout = (HolonomicControlLayout) this.joystickLayout;
+		}
 	}
 
 	/**
 	 * Sets the instantaneous movement of the robot based on readings from the joysticks.
+	 * If the control layout can control strafing, the strafe power is sent to the drive
+	 * system with the other powers; drive systems that cannot strafe ignore it.
 	 */
 	protected void setMovement() {
 		Joystick drivingGamepad = Lightning.getJoystick(1);
 		double forwardPower = this.joystickLayout.getForwardPower(drivingGamepad);
 		double clockwisePower = this.joystickLayout.getClockwisePower(drivingGamepad);
-		this.getRobot().getDrive().setMovement(forwardPower, clockwisePower);
+		double rightPower = 0;
+		if (this.holonomicLayout != null) {
+			rightPower = this.holonomicLayout.getRightStrafePower(drivingGamepad);
+		}
+		this.getRobot().getDrive().setMovement(forwardPower, rightPower, clockwisePower);
 	}
 
 	/**
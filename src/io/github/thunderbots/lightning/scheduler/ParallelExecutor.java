@@ -0,0 +1,245 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@code ParallelExecutor} is a fixed pool of worker threads that helps the scheduler
+ * thread run one dependency level of a {@code Timetable} at a time.
+ * <p>
+ * When a level is started, the workers are woken up, and every thread claims parallel
+ * entries from the level through a shared atomic cursor until none are left, so a thread
+ * that finishes its entries early takes over work that would otherwise wait behind a slow
+ * task. The scheduler thread first runs the {@link TaskAffinity#HARDWARE} entries of the
+ * level itself, in order, then joins the workers in claiming parallel entries, and returns
+ * only once every parallel entry of the level has finished.
+ * <p>
+ * The cursor holds the number of the level in its upper 32 bits and the index of the next
+ * unclaimed entry in its lower 32 bits. Before the bounds of a new level are written, the
+ * cursor is invalidated, and it is only republished once they have all been written, so
+ * a thread that reads the bounds of one level can never claim an entry with a cursor
+ * value from another. Between levels, the workers park, so an idle pool costs no CPU
+ * time.
+ *
+ * @author Zach Ohara
+ */
+final class ParallelExecutor {
+
+	/**
+	 * The index that the cursor holds while the bounds of a new level are being written.
+	 * It is past the end of every level, so no entry can be claimed with it.
+	 */
+	private static final int INVALID_INDEX = Integer.MAX_VALUE;
+
+	/**
+	 * The worker threads of this executor.
+	 */
+	private final Worker[] workers;
+
+	/**
+	 * The thread that starts levels and waits for them to finish.
+	 */
+	private final Thread owner;
+
+	/**
+	 * The entries of the timetable that is currently running.
+	 */
+	private volatile TaskEntry[] entries;
+
+	/**
+	 * The index one past the last entry of the level that is currently running.
+	 */
+	private volatile int end;
+
+	/**
+	 * The number of the cycle that is currently running.
+	 */
+	private volatile long cycle;
+
+	/**
+	 * The length of one cycle, in nanoseconds.
+	 */
+	private volatile long cyclePeriod;
+
+	/**
+	 * The number of the current level, and the index of the next entry that has not been
+	 * claimed by any thread. While a new level is being set up, the index is
+	 * {@link #INVALID_INDEX}.
+	 */
+	private final AtomicLong cursor;
+
+	/**
+	 * The number of parallel entries in the current level that have not finished.
+	 */
+	private final AtomicInteger remaining;
+
+	/**
+	 * The number of the level that was most recently started.
+	 */
+	private volatile int generation;
+
+	/**
+	 * Determines if the workers should exit.
+	 */
+	private volatile boolean shutdown;
+
+	/**
+	 * Constructs a new {@code ParallelExecutor} and starts its worker threads.
+	 *
+	 * @param threads the number of worker threads to start.
+	 * @param owner the thread that will start levels and wait for them to finish.
+	 */
+	ParallelExecutor(int threads, Thread owner) {
+		this.owner = owner;
+		this.cursor = new AtomicLong();
+		this.remaining = new AtomicInteger();
+		this.workers = new Worker[threads];
+		for (int i = 0; i < threads; i++) {
+			this.workers[i] = new Worker(owner.getName() + "-worker-" + i);
+			this.workers[i].setDaemon(true);
+			this.workers[i].setPriority(owner.getPriority());
+			this.workers[i].start();
+		}
+	}
+
+	/**
+	 * Gets the number of worker threads in this executor.
+	 *
+	 * @return the number of worker threads.
+	 */
+	int getThreadCount() {
+		return this.workers.length;
+	}
+
+	/**
+	 * Runs every entry in the given level that is due in the given cycle, and returns once
+	 * they have all finished. The hardware entries of the level must come before all of
+	 * its parallel entries. This must only be called by the owner thread.
+	 *
+	 * @param entries the entries of the timetable.
+	 * @param start the index of the first entry of the level.
+	 * @param parallelStart the index of the first parallel entry of the level.
+	 * @param end the index one past the last entry of the level.
+	 * @param cycle the number of the cycle that is being run.
+	 * @param cyclePeriod the length of one cycle, in nanoseconds.
+	 */
+	void runLevel(TaskEntry[] entries, int start, int parallelStart, int end, long cycle,
+			long cyclePeriod) {
+		int generation = this.generation;
+		if (parallelStart < end) {
+			generation++;
+			this.cursor.set(((long) generation << 32) | ParallelExecutor.INVALID_INDEX);
+			this.entries = entries;
+			this.end = end;
+			this.cycle = cycle;
+			this.cyclePeriod = cyclePeriod;
+			this.remaining.set(end - parallelStart);
+			this.cursor.set(((long) generation << 32) | parallelStart);
+			this.generation = generation;
+			for (Worker w : this.workers) {
+				LockSupport.unpark(w);
+			}
+		}
+		for (int i = start; i < parallelStart; i++) {
+			entries[i].runIfDue(cycle, cyclePeriod);
+		}
+		if (parallelStart < end) {
+			this.claimEntries(generation);
+			while (this.remaining.get() > 0) {
+				LockSupport.park(this);
+			}
+		}
+	}
+
+	/**
+	 * Claims and runs parallel entries of the given level until none are left.
+	 *
+	 * @param generation the number of the level to claim entries from.
+	 */
+	private void claimEntries(int generation) {
+		while (true) {
+			long c = this.cursor.get();
+			if ((int) (c >>> 32) != generation) {
+				return;
+			}
+			int i = (int) c;
+			TaskEntry[] entries = this.entries;
+			int end = this.end;
+			long cycle = this.cycle;
+			long cyclePeriod = this.cyclePeriod;
+			if (i >= end) {
+				return;
+			}
+			if (!this.cursor.compareAndSet(c, c + 1)) {
+				continue;
+			}
+			try {
+				entries[i].runIfDue(cycle, cyclePeriod);
+			} finally {
+				if (this.remaining.decrementAndGet() == 0) {
+					LockSupport.unpark(this.owner);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops all of the worker threads. Any level that is currently running is allowed to
+	 * finish first.
+	 */
+	void shutdown() {
+		this.shutdown = true;
+		for (Worker w : this.workers) {
+			LockSupport.unpark(w);
+		}
+	}
+
+	/**
+	 * A {@code Worker} is a thread in the pool that waits for a new level to start, and
+	 * then helps to run its parallel entries.
+	 */
+	private class Worker extends Thread {
+
+		/**
+		 * Constructs a new {@code Worker} with the given name.
+		 *
+		 * @param name the name of the thread.
+		 */
+		public Worker(String name) {
+			super(name);
+		}
+
+		@Override
+		public void run() {
+			int seen = ParallelExecutor.this.generation;
+			while (!ParallelExecutor.this.shutdown) {
+				int current = ParallelExecutor.this.generation;
+				if (current == seen) {
+					LockSupport.park(this);
+					continue;
+				}
+				seen = current;
+				ParallelExecutor.this.claimEntries(current);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,157 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.scheduler;
+
+/**
+ * A {@code ScheduledTask} is a handle to an action that has been scheduled to run after a
+ * delay, or repeatedly at a fixed rate, by a {@code TaskScheduler}. The handle can be used
+ * to cancel the action and to check if it has finished.
+ * <p>
+ * Timed actions are checked at the start of every cycle of the scheduler, so an action
+ * runs in the first cycle that starts at or after its due time, and the timing of actions
+ * is only as precise as the cycle period.
+ *
+ * @author Zach Ohara
+ * @see TaskScheduler#schedule(Runnable, long)
+ * @see TaskScheduler#scheduleAtFixedRate(Runnable, long, long)
+ */
+public final class ScheduledTask {
+
+	/**
+	 * The action to run.
+	 */
+	private final Runnable action;
+
+	/**
+	 * The time between consecutive runs of the action, in nanoseconds, or zero if the
+	 * action only runs once.
+	 */
+	private final long period;
+
+	/**
+	 * The time that the action should next run at, as given by {@code System.nanoTime()}.
+	 * This is only modified by the scheduler thread after the task has been queued.
+	 */
+	private long dueTime;
+
+	/**
+	 * Determines if the action has been cancelled.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * Determines if the action will never run again, either because it has run its only
+	 * time or because it has been cancelled.
+	 */
+	private volatile boolean done;
+
+	/**
+	 * Constructs a new {@code ScheduledTask}.
+	 *
+	 * @param action the action to run.
+	 * @param dueTime the time that the action should first run at.
+	 * @param period the time between runs in nanoseconds, or zero to run only once.
+	 */
+	ScheduledTask(Runnable action, long dueTime, long period) {
+		this.action = action;
+		this.dueTime = dueTime;
+		this.period = period;
+	}
+
+	/**
+	 * Cancels the action. If the action is running when it is cancelled, that run is
+	 * allowed to finish, but the action will never be started again.
+	 *
+	 * @return {@code true} if the action was cancelled by this call, or {@code false} if
+	 * it had already finished or been cancelled.
+	 */
+	public boolean cancel() {
+		synchronized (this) {
+			if (this.done) {
+				return false;
+			}
+			this.cancelled = true;
+			this.done = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Determines if the action has been cancelled.
+	 *
+	 * @return {@code true} if the action was cancelled before it finished.
+	 */
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	/**
+	 * Determines if the action will never run again. A one-time action is done once it
+	 * has run or been cancelled; a repeating action is only done once it is cancelled.
+	 *
+	 * @return {@code true} if the action will never run again.
+	 */
+	public boolean isDone() {
+		return this.done;
+	}
+
+	/**
+	 * Gets the time that the action should next run at.
+	 *
+	 * @return the due time, as given by {@code System.nanoTime()}.
+	 */
+	long getDueTime() {
+		return this.dueTime;
+	}
+
+	/**
+	 * Runs the action if it has not been cancelled, and calculates the next due time if
+	 * the action repeats. A repeating action that has fallen behind by more than one
+	 * period skips the runs it missed instead of running several times in a row.
+	 *
+	 * @param now the current time, as given by {@code System.nanoTime()}.
+	 * @return {@code true} if the action should be queued again, or {@code false} if it is
+	 * done.
+	 */
+	boolean run(long now) {
+		if (this.cancelled) {
+			return false;
+		}
+		try {
+			this.action.run();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+		if (this.period == 0) {
+			synchronized (this) {
+				this.done = true;
+			}
+			return false;
+		}
+		this.dueTime += this.period;
+		if (now - this.dueTime >= 0) {
+			this.dueTime += ((now - this.dueTime) / this.period + 1) * this.period;
+		}
+		return !this.cancelled;
+	}
+
+	@Override
+	public String toString() {
+		return "ScheduledTask[" + this.action + "]";
+	}
+
+}
@@ -0,0 +1,47 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.scheduler;
+
+/**
+ * The {@code TaskAffinity} enumeration specifies which threads a task registered with a
+ * {@code TaskScheduler} is allowed to run on.
+ *
+ * @author Zach Ohara
+ * @see TaskScheduler#registerTask(Runnable, int, TaskAffinity)
+ */
+public enum TaskAffinity {
+
+	/**
+	 * The task must run on the scheduler thread, in the same order relative to all other
+	 * {@code HARDWARE} tasks in every cycle. This is the default, and should be used for
+	 * any task that writes to motors, servos, or anything else with side effects that
+	 * depend on ordering.
+	 */
+	HARDWARE,
+
+	/**
+	 * The task is independent of every task it does not explicitly depend on, and may run
+	 * on any worker thread at the same time as other tasks.
+	 */
+	PARALLEL;
+
+	@Override
+	public String toString() {
+		return this.name();
+	}
+
+}
@@ -0,0 +1,271 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@code TaskEntry} holds a task that has been registered with a {@code TaskScheduler},
+ * along with the timing information that the scheduler uses to decide which cycles the
+ * task should run in.
+ * <p>
+ * A task runs once every {@code divisor} cycles, in the cycles whose number leaves a
+ * remainder of {@code phase} when divided by the divisor. The divisor and phase never
+ * change after the entry is constructed; only the scheduler thread advances the next cycle
+ * that the task is due in.
+ * <p>
+ * Every run of the task is timed, and the timings are kept in primitive fields and a
+ * preallocated ring buffer of the most recent samples, so recording them never allocates.
+ * The timings are only written by the scheduler thread. The run count is written last and
+ * is volatile, so a thread that reads it first will see timings that are at least as new
+ * as that run.
+ *
+ * @author Zach Ohara
+ */
+final class TaskEntry {
+
+	/**
+	 * The task that this entry runs.
+	 */
+	private final Runnable task;
+
+	/**
+	 * The number of cycles between consecutive runs of the task.
+	 */
+	private final int divisor;
+
+	/**
+	 * The remainder that a cycle number leaves when divided by the divisor in every cycle
+	 * that the task runs in.
+	 */
+	private final int phase;
+
+	/**
+	 * The threads that the task is allowed to run on.
+	 */
+	private final TaskAffinity affinity;
+
+	/**
+	 * The entries that must finish before this entry runs in a cycle. This list is only
+	 * read and modified by the scheduler while it holds its registry lock.
+	 */
+	private final List<TaskEntry> prerequisites;
+
+	/**
+	 * The dependency level of this entry, which is one more than the highest level of any
+	 * of its prerequisites. This is only used by the scheduler while it rebuilds the
+	 * timetable.
+	 */
+	private int level;
+
+	/**
+	 * The number of the next cycle that the task should run in.
+	 */
+	private long nextCycle;
+
+	/**
+	 * The number of execution time samples that are kept for percentile calculations.
+	 */
+	static final int SAMPLE_WINDOW = 128;
+
+	/**
+	 * The most recent execution times of the task, in nanoseconds. This is used as a ring
+	 * buffer, and {@link #runCount} determines the next slot that will be written.
+	 */
+	private final long[] samples;
+
+	/**
+	 * The number of times that the task has been run.
+	 */
+	private volatile long runCount;
+
+	/**
+	 * The execution time of the most recent run of the task, in nanoseconds.
+	 */
+	private long lastTime;
+
+	/**
+	 * The sum of the execution times of every run of the task, in nanoseconds.
+	 */
+	private long totalTime;
+
+	/**
+	 * The longest execution time of any run of the task, in nanoseconds.
+	 */
+	private long maxTime;
+
+	/**
+	 * The number of runs of the task that took longer than a full cycle period.
+	 */
+	private long overrunCount;
+
+	/**
+	 * Constructs a new {@code TaskEntry}.
+	 *
+	 * @param task the task that this entry runs.
+	 * @param divisor the number of cycles between consecutive runs of the task.
+	 * @param phase the remainder of every cycle number that the task runs in.
+	 * @param affinity the threads that the task is allowed to run on.
+	 * @param firstCycle the earliest cycle that the task may run in.
+	 */
+	TaskEntry(Runnable task, int divisor, int phase, TaskAffinity affinity, long firstCycle) {
+		this.task = task;
+		this.divisor = divisor;
+		this.phase = phase;
+		this.affinity = affinity;
+		this.prerequisites = new ArrayList<TaskEntry>();
+		long offset = (phase - firstCycle % divisor + divisor) % divisor;
+		this.nextCycle = firstCycle + offset;
+		this.samples = new long[TaskEntry.SAMPLE_WINDOW];
+	}
+
+	/**
+	 * Gets the task that this entry runs.
+	 *
+	 * @return the task of this entry.
+	 */
+	Runnable getTask() {
+		return this.task;
+	}
+
+	/**
+	 * Gets the number of cycles between consecutive runs of the task.
+	 *
+	 * @return the divisor of this entry.
+	 */
+	int getDivisor() {
+		return this.divisor;
+	}
+
+	/**
+	 * Gets the remainder of every cycle number that the task runs in.
+	 *
+	 * @return the phase of this entry.
+	 */
+	int getPhase() {
+		return this.phase;
+	}
+
+	/**
+	 * Gets the threads that the task is allowed to run on.
+	 *
+	 * @return the affinity of this entry.
+	 */
+	TaskAffinity getAffinity() {
+		return this.affinity;
+	}
+
+	/**
+	 * Gets the entries that must finish before this entry runs in a cycle.
+	 *
+	 * @return the prerequisites of this entry.
+	 */
+	List<TaskEntry> getPrerequisites() {
+		return this.prerequisites;
+	}
+
+	/**
+	 * Gets the dependency level of this entry.
+	 *
+	 * @return the dependency level of this entry.
+	 * @see #level
+	 */
+	int getLevel() {
+		return this.level;
+	}
+
+	/**
+	 * Sets the dependency level of this entry.
+	 *
+	 * @param level the dependency level of this entry.
+	 * @see #level
+	 */
+	void setLevel(int level) {
+		this.level = level;
+	}
+
+	/**
+	 * Runs the task if it is due in the given cycle, and records how long the task took.
+	 * An exception thrown by the task is printed, and counts as a run. If the entry was
+	 * registered late and has missed the cycle it was due in, it runs now
+	 * and then returns to its own phase.
+	 *
+	 * @param cycle the number of the cycle that is being run.
+	 * @param cyclePeriod the length of one cycle, in nanoseconds. Runs that take longer
+	 * than this are counted as overruns; zero disables overrun counting.
+	 * @return {@code true} if the task was run, or {@code false} otherwise.
+	 */
+	boolean runIfDue(long cycle, long cyclePeriod) {
+		if (cycle < this.nextCycle) {
+			return false;
+		}
+		this.nextCycle += ((cycle - this.nextCycle) / this.divisor + 1) * this.divisor;
+		long start = System.nanoTime();
+		try {
+			this.task.run();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		} finally {
+			this.recordRun(System.nanoTime() - start, cyclePeriod);
+		}
+		return true;
+	}
+
+	/**
+	 * Records the execution time of one run of the task.
+	 *
+	 * @param time the execution time of the run, in nanoseconds.
+	 * @param cyclePeriod the length of one cycle, in nanoseconds.
+	 */
+	private void recordRun(long time, long cyclePeriod) {
+		long count = this.runCount;
+		this.samples[(int) (count % TaskEntry.SAMPLE_WINDOW)] = time;
+		this.lastTime = time;
+		this.totalTime += time;
+		if (time > this.maxTime) {
+			this.maxTime = time;
+		}
+		if (cyclePeriod > 0 && time > cyclePeriod) {
+			this.overrunCount++;
+		}
+		this.runCount = count + 1;
+	}
+
+	/**
+	 * Takes a snapshot of the execution time statistics of this entry. This allocates,
+	 * and should not be called from inside a scheduled task on every cycle.
+	 *
+	 * @return the statistics of this entry.
+	 */
+	TaskStatistics getStatistics() {
+		long count = this.runCount;
+		int sampleCount = (int) Math.min(count, TaskEntry.SAMPLE_WINDOW);
+		long[] sorted = new long[sampleCount];
+		System.arraycopy(this.samples, 0, sorted, 0, sampleCount);
+		Arrays.sort(sorted);
+		long p99 = 0;
+		if (sampleCount > 0) {
+			p99 = sorted[(int) Math.ceil(sampleCount * 0.99) - 1];
+		}
+		long mean = count == 0 ? 0 : this.totalTime / count;
+		return new TaskStatistics(this.task.toString(), this.divisor, count, this.lastTime,
+				mean, p99, this.maxTime, this.overrunCount);
+	}
+
+}
@@ -16,81 +16,884 @@
 
 package io.github.thunderbots.lightning.scheduler;
 
+import io.github.thunderbots.lightning.utility.MathUtil;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * A {@code TaskScheduler} keeps a collection of {@code Runnable} objects, and calls all of
  * their {@code run()} methods sequentially and continuously.
+ * <p>
+ * The registered tasks are executed once per <em>cycle</em>, and cycles are started on a
+ * fixed schedule defined by the cycle period. Each cycle has an absolute deadline, so small
+ * delays in one cycle do not accumulate into drift over the following cycles. If the tasks
+ * in a cycle take longer than the cycle period to complete, the cycle is counted as an
+ * overrun, and the scheduler skips ahead to the next deadline that has not yet passed
+ * instead of running several cycles back-to-back to catch up.
+ * <p>
+ * A cycle period of zero puts the scheduler into a free-running mode, in which cycles are
+ * run back-to-back without any pacing.
+ * <p>
+ * Every task runs at an integer fraction of the cycle rate. A task registered with a divisor
+ * of {@code n} runs once every {@code n} cycles, so a scheduler with a 5 ms cycle can run
+ * a control loop at 200 Hz with a divisor of 1, poll inputs at 50 Hz with a divisor of 4,
+ * and send telemetry at 5 Hz with a divisor of 40. Within a cycle, tasks run in
+ * rate-monotonic order: tasks with a higher rate always run before tasks with a lower
+ * rate, and tasks with the same rate run in the order they were registered. Each slower
+ * task is also given a fixed phase when it is registered, chosen so that it shares as few
+ * cycles as possible with the other slow tasks, so the expensive low-rate work is spread
+ * over the cycles instead of piling up in the same one.
+ * <p>
+ * By default, every task runs on the scheduler thread. The scheduler can also be given a
+ * pool of worker threads with {@link #setParallelism(int)}, in which case tasks registered
+ * with {@link TaskAffinity#PARALLEL} affinity are spread across the workers and the
+ * scheduler thread, and all of them are joined before the cycle moves on. Tasks with
+ * {@link TaskAffinity#HARDWARE} affinity always run on the scheduler thread in a fixed
+ * order, so writes to motors and servos stay ordered. A task can also declare that it
+ * depends on other tasks with {@link #addDependency(Runnable, Runnable)}, in which case it
+ * only starts after those tasks have finished in every cycle that they both run in.
+ * <p>
+ * An exception thrown by a task, whatever its affinity, is printed and does not stop the
+ * rest of the cycle or the scheduler.
+ * <p>
+ * Tasks may be registered and removed from any thread, including from inside a running
+ * task. Changes to the set of registered tasks take effect at the start of the next cycle;
+ * the cycle that is currently running always finishes with the tasks it started with.
+ * <p>
+ * Actions that should happen once after a delay, or repeatedly at a fixed rate, can be
+ * scheduled with {@link #schedule(Runnable, long)} and
+ * {@link #scheduleAtFixedRate(Runnable, long, long)}. These actions are kept in a queue
+ * ordered by due time and run on the scheduler thread at the start of the first cycle that
+ * begins after they are due, so a pending action costs nothing until it is due, and no
+ * thread has to block while waiting for it.
+ * <p>
+ * Objects that must act at the boundaries of every cycle, such as a layer that batches
+ * hardware access, can be added with {@link #addTickListener(TickListener)}. They are told
+ * when each cycle starts, before its first task, and when it finishes, after its last.
+ * <p>
+ * A scheduler does not run any cycles until {@link #start()} is called, and keeps running
+ * until {@link #stop()} is called. The scheduler thread is a daemon thread named
+ * {@value #THREAD_NAME}, so a scheduler that is never stopped cannot keep the process
+ * alive, but every scheduler that is started should still be stopped and joined with
+ * {@link #join(long)} when it is no longer needed, so that only one scheduler loop is ever
+ * running on the robot controller.
  *
  * @author Zach Ohara
  */
 public class TaskScheduler {
 
 	/**
-	 * The list of {@code Runnable} objects that should be executed.
+	 * The default length of one cycle, in milliseconds.
+	 */
+	public static final long DEFAULT_CYCLE_PERIOD = 10;
+
+	/**
+	 * The name of the scheduler thread.
+	 */
+	public static final String THREAD_NAME = "TaskScheduler";
+
+	/**
+	 * The priority of the scheduler thread. This is slightly above normal, so that
+	 * background tasks keep their timing when the op mode thread is busy.
+	 */
+	public static final int THREAD_PRIORITY = Thread.NORM_PRIORITY + 1;
+
+	/**
+	 * The number of nanoseconds in one millisecond.
+	 */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/**
+	 * The timetable of tasks that should be executed. The timetable is never modified
+	 * after it is published; any change to the registered tasks replaces it with a new
+	 * timetable, so the scheduler thread can iterate over it without holding a lock.
+	 */
+	private volatile Timetable timetable;
+
+	/**
+	 * Every registered task, in the order that they were registered. This list is only
+	 * used to rebuild the timetable, and is guarded by {@link #registryLock}.
+	 */
+	private final List<TaskEntry> registeredTasks;
+
+	/**
+	 * The lock that is held while the timetable is being replaced. This only serializes
+	 * changes to the registered tasks against each other, and is never held while the
+	 * tasks are running.
+	 */
+	private final Object registryLock;
+
+	/**
+	 * The listeners that are told when each cycle starts and finishes. This array is
+	 * replaced, never modified, when a listener is added or removed.
+	 */
+	private volatile TickListener[] tickListeners;
+
+	/**
+	 * The actions that have been scheduled to run after a delay or at a fixed rate.
+	 */
+	private final TimerQueue timers;
+
+	/**
+	 * The number of worker threads that should help the scheduler thread run parallel
+	 * tasks.
+	 */
+	private volatile int parallelism;
+
+	/**
+	 * The pool of worker threads that is currently running, or {@code null} if there is
+	 * none. This is only accessed by the scheduler thread.
+	 */
+	private ParallelExecutor executor;
+
+	/**
+	 * The {@code Thread} to use for executing the registered tasks, or {@code null} if the
+	 * scheduler has not been started.
+	 */
+	private volatile TaskSchedulerThread taskThread;
+
+	/**
+	 * The length of one cycle, in nanoseconds. If this is zero, the scheduler is
+	 * free-running.
+	 */
+	private volatile long cyclePeriod;
+
+	/**
+	 * The number of cycles that have been completed since the scheduler was started.
 	 */
-	private volatile List<Runnable> tasks;
+	private volatile long cycleCount;
 
 	/**
-	 * The {@code Thread} to use for executing the registered tasks.
+	 * The number of cycles that did not finish before the deadline of the cycle.
 	 */
-	private Thread taskThread;
+	private volatile long overrunCount;
 
 	/**
-	 * Constructs a new {@code TaskScheduler}.
+	 * The time, in nanoseconds, that it took to run all the tasks in the most recent
+	 * cycle.
+	 */
+	private volatile long lastCycleTime;
+
+	/**
+	 * Constructs a new {@code TaskScheduler} that runs with the default cycle period. The
+	 * scheduler does not run any tasks until it is started.
+	 *
+	 * @see #DEFAULT_CYCLE_PERIOD
 	 */
 	public TaskScheduler() {
-		this.tasks = new ArrayList<Runnable>();
-		this.taskThread = new TaskSchedulerThread();
-		this.taskThread.start();
+		this(TaskScheduler.DEFAULT_CYCLE_PERIOD);
+	}
+
+	/**
+	 * Constructs a new {@code TaskScheduler} that runs with the given cycle period. The
+	 * scheduler does not run any tasks until it is started.
+	 *
+	 * @param cyclePeriod the length of one cycle, in milliseconds, or zero if the
+	 * scheduler should be free-running.
+	 */
+	public TaskScheduler(long cyclePeriod) {
+		this.timetable = Timetable.EMPTY;
+		this.registeredTasks = new ArrayList<TaskEntry>();
+		this.registryLock = new Object();
+		this.timers = new TimerQueue();
+		this.tickListeners = new TickListener[0];
+		this.setCyclePeriod(cyclePeriod);
+	}
+
+	/**
+	 * Starts running cycles on a new scheduler thread. A scheduler that has been stopped
+	 * can only be started again once its old thread has finished, which can be waited for
+	 * with {@link #join(long)}, because the old thread still tears down the timed actions
+	 * and worker threads that the new one would use.
+	 *
+	 * @throws IllegalStateException if the scheduler is running, or has been asked to stop
+	 * but its thread has not finished yet.
+	 */
+	public synchronized void start() {
+		TaskSchedulerThread old = this.taskThread;
+		if (old != null && old.isAlive()) {
+			throw new IllegalStateException(old.isStopRequested()
+					? "Task scheduler is still stopping"
+					: "Task scheduler is already running");
+		}
+		TaskSchedulerThread thread = new TaskSchedulerThread();
+		thread.setName(TaskScheduler.THREAD_NAME);
+		thread.setDaemon(true);
+		thread.setPriority(TaskScheduler.THREAD_PRIORITY);
+		this.taskThread = thread;
+		thread.start();
+	}
+
+	/**
+	 * Asks the scheduler thread to stop. The cycle that is currently running, if any, is
+	 * allowed to finish, and the thread is also interrupted so that a task that is blocked
+	 * can return early. Once the last cycle has finished, every timed action that is still
+	 * pending is cancelled. This method does not wait for the thread to stop; use
+	 * {@link #join(long)} for that, before the scheduler is started again. Stopping a
+	 * scheduler that is not running has no effect.
+	 */
+	public synchronized void stop() {
+		TaskSchedulerThread thread = this.taskThread;
+		if (thread != null) {
+			thread.requestStop();
+		}
 	}
 
 	/**
-	 * Adds a given {@code Runnable} to be executed in the cycle.
+	 * Waits for the scheduler thread to stop, for at most the given amount of time.
+	 *
+	 * @param milliseconds the longest time to wait, or zero to wait forever.
+	 * @return {@code true} if the scheduler thread is no longer running, or {@code false}
+	 * if it is still running when the wait ends, or the waiting thread is interrupted.
+	 * This also returns {@code false} if called from the scheduler thread itself, because
+	 * a thread cannot wait for itself to stop.
+	 */
+	public boolean join(long milliseconds) {
+		TaskSchedulerThread thread = this.taskThread;
+		if (thread == null) {
+			return true;
+		}
+		if (thread == Thread.currentThread()) {
+			return false;
+		}
+		try {
+			thread.join(milliseconds);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return !thread.isAlive();
+	}
+
+	/**
+	 * Determines if the scheduler thread has been started and has not yet stopped or been
+	 * asked to stop.
+	 *
+	 * @return {@code true} if the scheduler is running.
+	 */
+	public boolean isRunning() {
+		TaskSchedulerThread thread = this.taskThread;
+		return thread != null && thread.isAlive() && !thread.isStopRequested();
+	}
+
+	/**
+	 * Adds a given {@code Runnable} to be executed in every cycle.
 	 *
 	 * @param task the task to be executed in the cycle.
 	 */
 	public void registerTask(Runnable task) {
-		synchronized (this.tasks) {
-			this.tasks.add(task);
+		this.registerTask(task, 1);
+	}
+
+	/**
+	 * Adds a given {@code Runnable} to be executed on the scheduler thread once every
+	 * {@code divisor} cycles.
+	 *
+	 * @param task the task to be executed in the cycle.
+	 * @param divisor the number of cycles between consecutive runs of the task.
+	 * @throws IllegalArgumentException if the divisor is less than one.
+	 */
+	public void registerTask(Runnable task, int divisor) {
+		this.registerTask(task, divisor, TaskAffinity.HARDWARE);
+	}
+
+	/**
+	 * Adds a given {@code Runnable} to be executed once every {@code divisor} cycles, on
+	 * the threads allowed by the given affinity.
+	 *
+	 * @param task the task to be executed in the cycle.
+	 * @param divisor the number of cycles between consecutive runs of the task.
+	 * @param affinity the threads that the task is allowed to run on.
+	 * @throws IllegalArgumentException if the divisor is less than one.
+	 */
+	public void registerTask(Runnable task, int divisor, TaskAffinity affinity) {
+		if (divisor < 1) {
+			throw new IllegalArgumentException("Rate divisor must be at least 1: " + divisor);
+		}
+		synchronized (this.registryLock) {
+			int phase = TaskScheduler.choosePhase(this.registeredTasks, divisor);
+			this.registeredTasks.add(new TaskEntry(task, divisor, phase, affinity,
+					this.cycleCount + 1));
+			this.rebuildTimetable();
 		}
 	}
 
 	/**
-	 * Removes a given {@code Runnable} from the cycle.
+	 * Adds a given {@code Runnable} to be executed on the scheduler thread at
+	 * approximately the given frequency.
+	 *
+	 * @param task the task to be executed in the cycle.
+	 * @param frequency the number of times the task should run per second.
+	 * @throws IllegalArgumentException if the frequency is not positive.
+	 * @throws IllegalStateException if the scheduler is free-running.
+	 * @see #registerTaskAtRate(Runnable, double, TaskAffinity)
+	 */
+	public void registerTaskAtRate(Runnable task, double frequency) {
+		this.registerTaskAtRate(task, frequency, TaskAffinity.HARDWARE);
+	}
+
+	/**
+	 * Adds a given {@code Runnable} to be executed at approximately the given frequency,
+	 * on the threads allowed by the given affinity. The frequency is converted to the
+	 * nearest cycle divisor using the current cycle period, so the task can run no faster
+	 * than once per cycle. Later changes to the cycle period do not change the divisor of
+	 * a task that has already been registered.
+	 *
+	 * @param task the task to be executed in the cycle.
+	 * @param frequency the number of times the task should run per second.
+	 * @param affinity the threads that the task is allowed to run on.
+	 * @throws IllegalArgumentException if the frequency is not positive.
+	 * @throws IllegalStateException if the scheduler is free-running.
+	 * @see #registerTask(Runnable, int, TaskAffinity)
+	 */
+	public void registerTaskAtRate(Runnable task, double frequency, TaskAffinity affinity) {
+		if (!(frequency > 0)) {
+			throw new IllegalArgumentException("Task frequency must be positive: " + frequency);
+		}
+		long period = this.cyclePeriod;
+		if (period == 0) {
+			throw new IllegalStateException("A free-running scheduler has no fixed rate");
+		}
+		double cyclesPerRun = 1e9 / (frequency * period);
+		this.registerTask(task, (int) Math.max(1, Math.round(cyclesPerRun)), affinity);
+	}
+
+	/**
+	 * Declares that the given task must not start in any cycle until the given
+	 * prerequisite task has finished in that cycle. Both tasks must already be registered.
+	 * If the prerequisite does not run in a cycle that the task runs in, the task still
+	 * runs, after the point where the prerequisite would have run.
+	 *
+	 * @param task the task that depends on the prerequisite.
+	 * @param prerequisite the task that must finish first.
+	 * @throws IllegalArgumentException if either task is not registered, or if the new
+	 * dependency would make a task depend on itself.
+	 */
+	public void addDependency(Runnable task, Runnable prerequisite) {
+		synchronized (this.registryLock) {
+			TaskEntry dependent = this.findEntry(task);
+			TaskEntry required = this.findEntry(prerequisite);
+			if (dependent == null || required == null) {
+				throw new IllegalArgumentException("Both tasks must be registered");
+			}
+			if (TaskScheduler.dependsOn(required, dependent)) {
+				throw new IllegalArgumentException("Dependency cycle between " + task
+						+ " and " + prerequisite);
+			}
+			dependent.getPrerequisites().add(required);
+			this.rebuildTimetable();
+		}
+	}
+
+	/**
+	 * Removes a given {@code Runnable} from the cycle. Any dependencies on the task are
+	 * removed with it.
 	 *
 	 * @param task the task to be deleted from the cycle.
 	 */
 	public void removeTask(Runnable task) {
-		synchronized (this.tasks) {
-			this.tasks.remove(task);
+		synchronized (this.registryLock) {
+			TaskEntry entry = this.findEntry(task);
+			if (entry == null) {
+				return;
+			}
+			this.registeredTasks.remove(entry);
+			for (TaskEntry e : this.registeredTasks) {
+				e.getPrerequisites().remove(entry);
+			}
+			this.rebuildTimetable();
+		}
+	}
+
+	/**
+	 * Schedules the given action to run once on the scheduler thread, after the given
+	 * delay.
+	 *
+	 * @param action the action to run.
+	 * @param delay the time to wait before running the action, in milliseconds.
+	 * @return a handle that can be used to cancel the action.
+	 * @throws IllegalArgumentException if the delay is negative.
+	 */
+	public ScheduledTask schedule(Runnable action, long delay) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Delay cannot be negative: " + delay);
+		}
+		long dueTime = System.nanoTime() + delay * TaskScheduler.NANOS_PER_MILLI;
+		ScheduledTask task = new ScheduledTask(action, dueTime, 0);
+		this.timers.add(task);
+		return task;
+	}
+
+	/**
+	 * Schedules the given action to run repeatedly on the scheduler thread, first after
+	 * the given initial delay, and then once every period. The due times are fixed
+	 * relative to the first run, so the action does not drift; if the action falls more
+	 * than a full period behind, the runs it missed are skipped.
+	 *
+	 * @param action the action to run.
+	 * @param initialDelay the time to wait before the first run, in milliseconds.
+	 * @param period the time between consecutive runs, in milliseconds.
+	 * @return a handle that can be used to cancel the action.
+	 * @throws IllegalArgumentException if the delay is negative or the period is not
+	 * positive.
+	 */
+	public ScheduledTask scheduleAtFixedRate(Runnable action, long initialDelay, long period) {
+		if (initialDelay < 0) {
+			throw new IllegalArgumentException("Delay cannot be negative: " + initialDelay);
+		}
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be positive: " + period);
+		}
+		long dueTime = System.nanoTime() + initialDelay * TaskScheduler.NANOS_PER_MILLI;
+		ScheduledTask task = new ScheduledTask(action, dueTime,
+				period * TaskScheduler.NANOS_PER_MILLI);
+		this.timers.add(task);
+		return task;
+	}
+
+	/**
+	 * Adds a listener that is told when each cycle starts and finishes. Listeners are told
+	 * about the start of a cycle in the order that they were added, and about the end of a
+	 * cycle in the reverse order.
+	 *
+	 * @param listener the listener to add.
+	 */
+	public void addTickListener(TickListener listener) {
+		synchronized (this.registryLock) {
+			TickListener[] old = this.tickListeners;
+			TickListener[] added = new TickListener[old.length + 1];
+			System.arraycopy(old, 0, added, 0, old.length);
+			added[old.length] = listener;
+			this.tickListeners = added;
+		}
+	}
+
+	/**
+	 * Removes a listener that was added with {@link #addTickListener(TickListener)}. If
+	 * the listener was never added, this method has no effect.
+	 *
+	 * @param listener the listener to remove.
+	 */
+	public void removeTickListener(TickListener listener) {
+		synchronized (this.registryLock) {
+			TickListener[] old = this.tickListeners;
+			for (int i = 0; i < old.length; i++) {
+				if (old[i] == listener) {
+					TickListener[] removed = new TickListener[old.length - 1];
+					System.arraycopy(old, 0, removed, 0, i);
+					System.arraycopy(old, i + 1, removed, i, old.length - i - 1);
+					this.tickListeners = removed;
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of worker threads that help the scheduler thread run parallel tasks.
+	 *
+	 * @return the number of worker threads.
+	 * @see #setParallelism(int)
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * Sets the number of worker threads that help the scheduler thread run tasks with
+	 * {@link TaskAffinity#PARALLEL} affinity. With zero workers, which is the default,
+	 * every task runs on the scheduler thread. A good value is one less than the number of
+	 * processors, because the scheduler thread also runs parallel tasks while it waits.
+	 * The pool is replaced at the start of the next cycle.
+	 *
+	 * @param threads the number of worker threads.
+	 * @throws IllegalArgumentException if the number of threads is negative.
+	 */
+	public void setParallelism(int threads) {
+		if (threads < 0) {
+			throw new IllegalArgumentException("Parallelism cannot be negative: " + threads);
+		}
+		this.parallelism = threads;
+	}
+
+	/**
+	 * Gets the length of one cycle of this scheduler.
+	 *
+	 * @return the length of one cycle, in milliseconds.
+	 * @see #cyclePeriod
+	 */
+	public long getCyclePeriod() {
+		return this.cyclePeriod / TaskScheduler.NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Sets the length of one cycle of this scheduler. The new period takes effect at the
+	 * end of the current cycle.
+	 *
+	 * @param cyclePeriod the length of one cycle, in milliseconds, or zero if the
+	 * scheduler should be free-running.
+	 * @throws IllegalArgumentException if the given period is negative.
+	 * @see #cyclePeriod
+	 */
+	public void setCyclePeriod(long cyclePeriod) {
+		if (cyclePeriod < 0) {
+			throw new IllegalArgumentException("Cycle period cannot be negative: " + cyclePeriod);
+		}
+		this.cyclePeriod = cyclePeriod * TaskScheduler.NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Gets the number of cycles that have been completed by this scheduler.
+	 *
+	 * @return the number of completed cycles.
+	 */
+	public long getCycleCount() {
+		return this.cycleCount;
+	}
+
+	/**
+	 * Gets the number of cycles that did not finish before their deadline. A free-running
+	 * scheduler never overruns.
+	 *
+	 * @return the number of overrun cycles.
+	 */
+	public long getOverrunCount() {
+		return this.overrunCount;
+	}
+
+	/**
+	 * Gets the time that it took to run all the tasks in the most recent cycle.
+	 *
+	 * @return the duration of the most recent cycle, in nanoseconds.
+	 */
+	public long getLastCycleTime() {
+		return this.lastCycleTime;
+	}
+
+	/**
+	 * Takes a snapshot of the execution time statistics of every registered task, in the
+	 * order that the tasks run in. The statistics of a task are kept from the time it is
+	 * registered until it is removed.
+	 * <p>
+	 * This method allocates, and is meant to be called occasionally from the op mode
+	 * thread, for example to send the statistics to the driver station with
+	 * {@link io.github.thunderbots.lightning.utility.Telemetry#sendTaskStatistics(TaskScheduler)
+	 * Telemetry.sendTaskStatistics()}.
+	 *
+	 * @return the statistics of every registered task.
+	 */
+	public TaskStatistics[] getTaskStatistics() {
+		TaskEntry[] snapshot = this.timetable.getEntries();
+		TaskStatistics[] statistics = new TaskStatistics[snapshot.length];
+		for (int i = 0; i < snapshot.length; i++) {
+			statistics[i] = snapshot[i].getStatistics();
+		}
+		return statistics;
+	}
+
+	/**
+	 * Chooses the phase for a new task with the given divisor. Every possible phase is
+	 * scored by the expected fraction of the new task's runs that would land in the same
+	 * cycle as a run of each existing task, and the phase with the lowest score is chosen.
+	 * Two tasks with divisors {@code a} and {@code b} share a cycle exactly when their
+	 * phases are equal modulo the greatest common divisor of {@code a} and {@code b}.
+	 * <p>
+	 * Tasks that run every cycle are ignored, because they share every cycle with every
+	 * other task no matter which phase is chosen.
+	 *
+	 * @param entries the tasks that are already registered.
+	 * @param divisor the divisor of the new task.
+	 * @return the phase that the new task should use.
+	 */
+	private static int choosePhase(List<TaskEntry> entries, int divisor) {
+		int bestPhase = 0;
+		double bestScore = Double.POSITIVE_INFINITY;
+		for (int phase = 0; phase < divisor; phase++) {
+			double score = 0;
+			for (TaskEntry e : entries) {
+				if (e.getDivisor() == 1) {
+					continue;
+				}
+				int gcd = MathUtil.greatestCommonDivisor(divisor, e.getDivisor());
+				if (phase % gcd == e.getPhase() % gcd) {
+					score += (double) gcd / e.getDivisor();
+				}
+			}
+			if (score < bestScore) {
+				bestScore = score;
+				bestPhase = phase;
+			}
+		}
+		return bestPhase;
+	}
+
+	/**
+	 * Finds the registered entry for the given task. This must only be called while
+	 * holding the registry lock.
+	 *
+	 * @param task the task to find.
+	 * @return the entry for the task, or {@code null} if it is not registered.
+	 */
+	private TaskEntry findEntry(Runnable task) {
+		for (TaskEntry e : this.registeredTasks) {
+			if (e.getTask().equals(task)) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Determines if the first entry depends on the second entry, directly or through any
+	 * chain of prerequisites.
+	 *
+	 * @param entry the entry to check the prerequisites of.
+	 * @param other the entry that may be a prerequisite.
+	 * @return {@code true} if {@code entry} depends on {@code other}.
+	 */
+	private static boolean dependsOn(TaskEntry entry, TaskEntry other) {
+		if (entry == other) {
+			return true;
+		}
+		for (TaskEntry e : entry.getPrerequisites()) {
+			if (TaskScheduler.dependsOn(e, other)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Calculates the dependency level of every registered entry, sorts the entries into a
+	 * new timetable, and publishes it. This must only be called while holding the registry
+	 * lock.
+	 *
+	 * @see Timetable
+	 */
+	private void rebuildTimetable() {
+		int levels = 0;
+		for (TaskEntry e : this.registeredTasks) {
+			e.setLevel(-1);
+		}
+		for (TaskEntry e : this.registeredTasks) {
+			levels = Math.max(levels, TaskScheduler.computeLevel(e) + 1);
+		}
+		List<TaskEntry> sorted = new ArrayList<TaskEntry>(this.registeredTasks);
+		Collections.sort(sorted, new Comparator<TaskEntry>() {
+
+			@Override
+			public int compare(TaskEntry a, TaskEntry b) {
+				if (a.getLevel() != b.getLevel()) {
+					return a.getLevel() < b.getLevel() ? -1 : 1;
+				}
+				if (a.getAffinity() != b.getAffinity()) {
+					return a.getAffinity() == TaskAffinity.HARDWARE ? -1 : 1;
+				}
+				if (a.getDivisor() != b.getDivisor()) {
+					return a.getDivisor() < b.getDivisor() ? -1 : 1;
+				}
+				return 0;
+			}
+
+		});
+		TaskEntry[] entries = sorted.toArray(new TaskEntry[sorted.size()]);
+		int[] parallelStarts = new int[levels];
+		int[] levelEnds = new int[levels];
+		int index = 0;
+		for (int level = 0; level < levels; level++) {
+			while (index < entries.length && entries[index].getLevel() == level
+					&& entries[index].getAffinity() == TaskAffinity.HARDWARE) {
+				index++;
+			}
+			parallelStarts[level] = index;
+			while (index < entries.length && entries[index].getLevel() == level) {
+				index++;
+			}
+			levelEnds[level] = index;
+		}
+		this.timetable = new Timetable(entries, parallelStarts, levelEnds);
+	}
+
+	/**
+	 * Calculates the dependency level of the given entry, and of all of its prerequisites
+	 * that do not have a level yet.
+	 *
+	 * @param entry the entry to calculate the level of.
+	 * @return the dependency level of the entry.
+	 */
+	private static int computeLevel(TaskEntry entry) {
+		if (entry.getLevel() < 0) {
+			int level = 0;
+			for (TaskEntry e : entry.getPrerequisites()) {
+				level = Math.max(level, TaskScheduler.computeLevel(e) + 1);
+			}
+			entry.setLevel(level);
+		}
+		return entry.getLevel();
+	}
+
+	/**
+	 * Replaces the pool of worker threads if the requested parallelism has changed. This
+	 * must only be called by the scheduler thread, between cycles.
+	 *
+	 * @return the pool of worker threads, or {@code null} if there is none.
+	 */
+	private ParallelExecutor updateExecutor() {
+		int threads = this.parallelism;
+		int current = this.executor == null ? 0 : this.executor.getThreadCount();
+		if (threads != current) {
+			this.shutdownExecutor();
+			if (threads > 0) {
+				this.executor = new ParallelExecutor(threads, Thread.currentThread());
+			}
+		}
+		return this.executor;
+	}
+
+	/**
+	 * Stops the pool of worker threads, if there is one. This must only be called by the
+	 * scheduler thread, between cycles.
+	 */
+	private void shutdownExecutor() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
 		}
 	}
 
 	/**
 	 * Calls the {@code run()} method of all {@code Runnable} objects that have been
-	 * registered with this task scheduler.
+	 * registered with this task scheduler and are due in the given cycle.
+	 *
+	 * @param cycle the number of the cycle that is being run.
 	 */
-	private void runAllTasks() {
-		synchronized (this.tasks) {
-			for (Runnable r : this.tasks) {
-				r.run();
+	private void runAllTasks(long cycle) {
+		this.timers.runDue(System.nanoTime());
+		Timetable timetable = this.timetable;
+		TaskEntry[] entries = timetable.getEntries();
+		long period = this.cyclePeriod;
+		ParallelExecutor executor = this.updateExecutor();
+		if (executor == null || !timetable.hasParallelTasks()) {
+			for (int i = 0; i < entries.length; i++) {
+				entries[i].runIfDue(cycle, period);
 			}
+			return;
+		}
+		int[] parallelStarts = timetable.getParallelStarts();
+		int[] levelEnds = timetable.getLevelEnds();
+		int start = 0;
+		for (int level = 0; level < levelEnds.length; level++) {
+			executor.runLevel(entries, start, parallelStarts[level], levelEnds[level], cycle,
+					period);
+			start = levelEnds[level];
 		}
 	}
 
+	/**
+	 * Runs one cycle of tasks, and records the time that the cycle took.
+	 */
+	private void runCycle() {
+		long cycle = this.cycleCount;
+		long start = System.nanoTime();
+		TickListener[] listeners = this.tickListeners;
+		for (int i = 0; i < listeners.length; i++) {
+			listeners[i].tickStarted(cycle);
+		}
+		this.runAllTasks(cycle);
+		for (int i = listeners.length - 1; i >= 0; i--) {
+			listeners[i].tickFinished(cycle);
+		}
+		this.lastCycleTime = System.nanoTime() - start;
+		this.cycleCount = cycle + 1;
+	}
+
 	/**
 	 * A {@code TaskSchedulerThread} is a {@code Thread} that is used to run all of the
 	 * registered tasks.
 	 */
 	private class TaskSchedulerThread extends Thread {
 
+		/**
+		 * Determines if this thread has been asked to stop. This is checked in addition
+		 * to the interrupt status, because a task may catch an interrupt and clear it.
+		 */
+		private volatile boolean stopRequested;
+
+		/**
+		 * Asks this thread to stop after the current cycle.
+		 */
+		public void requestStop() {
+			this.stopRequested = true;
+			this.interrupt();
+		}
+
+		/**
+		 * Determines if this thread has been asked to stop.
+		 *
+		 * @return {@code true} if this thread has been asked to stop.
+		 */
+		public boolean isStopRequested() {
+			return this.stopRequested;
+		}
+
 		@Override
 		public void run() {
-			while (!this.isInterrupted()) {
-				TaskScheduler.this.runAllTasks();
+			try {
+				this.runCycles();
+			} finally {
+				TaskScheduler.this.timers.clear();
+				TaskScheduler.this.shutdownExecutor();
+			}
+		}
+
+		/**
+		 * Runs cycles on schedule until this thread is asked to stop or is interrupted.
+		 */
+		private void runCycles() {
+			long deadline = System.nanoTime();
+			while (!this.stopRequested && !this.isInterrupted()) {
+				TaskScheduler.this.runCycle();
+				long period = TaskScheduler.this.cyclePeriod;
+				long now = System.nanoTime();
+				if (period == 0) {
+					deadline = now;
+					continue;
+				}
+				deadline += period;
+				if (now - deadline > 0) {
+					TaskScheduler.this.overrunCount++;
+					long missed = (now - deadline) / period + 1;
+					deadline += missed * period;
+				}
+				if (!this.sleepUntil(deadline)) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Blocks this thread until the given absolute time.
+		 *
+		 * @param deadline the time to wake up at, as given by {@code System.nanoTime()}.
+		 * @return {@code true} if the sleep was not interrupted, or {@code false} if the
+		 * thread was interrupted and should stop.
+		 */
+		private boolean sleepUntil(long deadline) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return true;
+			}
+			try {
+				Thread.sleep(remaining / TaskScheduler.NANOS_PER_MILLI,
+						(int) (remaining % TaskScheduler.NANOS_PER_MILLI));
+			} catch (InterruptedException e) {
+				this.interrupt();
+				return false;
 			}
+			return true;
 		}
 
 	}
@@ -0,0 +1,180 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.scheduler;
+
+/**
+ * A {@code TaskStatistics} is an immutable snapshot of the execution time statistics of a
+ * single task registered with a {@code TaskScheduler}. All times are measured with
+ * {@code System.nanoTime()} and reported in nanoseconds.
+ *
+ * @author Zach Ohara
+ * @see TaskScheduler#getTaskStatistics()
+ */
+public final class TaskStatistics {
+
+	/**
+	 * The number of nanoseconds in one millisecond.
+	 */
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	/**
+	 * The name of the task, as given by its {@code toString()} method.
+	 */
+	private final String name;
+
+	/**
+	 * The number of cycles between consecutive runs of the task.
+	 */
+	private final int divisor;
+
+	/**
+	 * The number of times that the task has been run.
+	 */
+	private final long runCount;
+
+	/**
+	 * The execution time of the most recent run of the task.
+	 */
+	private final long lastTime;
+
+	/**
+	 * The mean execution time of every run of the task.
+	 */
+	private final long meanTime;
+
+	/**
+	 * The 99th percentile execution time of the most recent runs of the task.
+	 */
+	private final long p99Time;
+
+	/**
+	 * The longest execution time of any run of the task.
+	 */
+	private final long maxTime;
+
+	/**
+	 * The number of runs of the task that took longer than a full cycle period.
+	 */
+	private final long overrunCount;
+
+	/**
+	 * Constructs a new {@code TaskStatistics}.
+	 *
+	 * @param name the name of the task.
+	 * @param divisor the number of cycles between consecutive runs of the task.
+	 * @param runCount the number of times that the task has been run.
+	 * @param lastTime the execution time of the most recent run.
+	 * @param meanTime the mean execution time of every run.
+	 * @param p99Time the 99th percentile execution time of the most recent runs.
+	 * @param maxTime the longest execution time of any run.
+	 * @param overrunCount the number of runs that took longer than a cycle period.
+	 */
+	TaskStatistics(String name, int divisor, long runCount, long lastTime, long meanTime,
+			long p99Time, long maxTime, long overrunCount) {
+		this.name = name;
+		this.divisor = divisor;
+		this.runCount = runCount;
+		this.lastTime = lastTime;
+		this.meanTime = meanTime;
+		this.p99Time = p99Time;
+		this.maxTime = maxTime;
+		this.overrunCount = overrunCount;
+	}
+
+	/**
+	 * Gets the name of the task, as given by its {@code toString()} method.
+	 *
+	 * @return the name of the task.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Gets the number of cycles between consecutive runs of the task.
+	 *
+	 * @return the rate divisor of the task.
+	 */
+	public int getDivisor() {
+		return this.divisor;
+	}
+
+	/**
+	 * Gets the number of times that the task has been run.
+	 *
+	 * @return the run count of the task.
+	 */
+	public long getRunCount() {
+		return this.runCount;
+	}
+
+	/**
+	 * Gets the execution time of the most recent run of the task.
+	 *
+	 * @return the last execution time, in nanoseconds.
+	 */
+	public long getLastTime() {
+		return this.lastTime;
+	}
+
+	/**
+	 * Gets the mean execution time of every run of the task.
+	 *
+	 * @return the mean execution time, in nanoseconds.
+	 */
+	public long getMeanTime() {
+		return this.meanTime;
+	}
+
+	/**
+	 * Gets the 99th percentile execution time of the task. The percentile is calculated
+	 * over the most recent runs only, so it follows changes in the behavior of the task.
+	 *
+	 * @return the 99th percentile execution time, in nanoseconds.
+	 */
+	public long getP99Time() {
+		return this.p99Time;
+	}
+
+	/**
+	 * Gets the longest execution time of any run of the task.
+	 *
+	 * @return the maximum execution time, in nanoseconds.
+	 */
+	public long getMaxTime() {
+		return this.maxTime;
+	}
+
+	/**
+	 * Gets the number of runs of the task that took longer than a full cycle period.
+	 *
+	 * @return the number of overrunning runs.
+	 */
+	public long getOverrunCount() {
+		return this.overrunCount;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d last=%.2f mean=%.2f p99=%.2f max=%.2f ms over=%d",
+				this.runCount, this.lastTime / TaskStatistics.NANOS_PER_MILLI,
+				this.meanTime / TaskStatistics.NANOS_PER_MILLI,
+				this.p99Time / TaskStatistics.NANOS_PER_MILLI,
+				this.maxTime / TaskStatistics.NANOS_PER_MILLI, this.overrunCount);
+	}
+
+}
@@ -0,0 +1,44 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.scheduler;
+
+/**
+ * A {@code TickListener} is told when each cycle of a {@code TaskScheduler} begins and
+ * ends. Both methods are called on the scheduler thread, before the first task of the
+ * cycle and after the last task of the cycle, so they can be used to prepare shared state
+ * for the tasks and to act on what the tasks left behind.
+ *
+ * @author Zach Ohara
+ * @see TaskScheduler#addTickListener(TickListener)
+ */
+public interface TickListener {
+
+	/**
+	 * Called at the start of a cycle, before any task runs.
+	 *
+	 * @param cycle the number of the cycle.
+	 */
+	public void tickStarted(long cycle);
+
+	/**
+	 * Called at the end of a cycle, after every task has finished.
+	 *
+	 * @param cycle the number of the cycle.
+	 */
+	public void tickFinished(long cycle);
+
+}
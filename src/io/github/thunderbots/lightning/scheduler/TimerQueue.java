@@ -0,0 +1,163 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A {@code TimerQueue} holds the timed actions of a {@code TaskScheduler}, ordered by the
+ * time that they are due.
+ * <p>
+ * The actions are kept in a binary min-heap that is only touched by the scheduler thread.
+ * Actions scheduled from other threads are first placed in a concurrent hand-off queue,
+ * and moved into the heap at the start of the next cycle. Checking for due actions in a
+ * cycle with nothing due only looks at the top of the heap, and cancelled actions are
+ * dropped from the heap lazily when they reach the top, so cancelling is constant-time.
+ *
+ * @author Zach Ohara
+ */
+final class TimerQueue {
+
+	/**
+	 * The initial capacity of the heap.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The actions that have been scheduled but not yet moved into the heap.
+	 */
+	private final Queue<ScheduledTask> incoming;
+
+	/**
+	 * The heap of queued actions. The action that is due soonest is always at index zero.
+	 */
+	private ScheduledTask[] heap;
+
+	/**
+	 * The number of actions in the heap.
+	 */
+	private int size;
+
+	/**
+	 * Constructs a new, empty {@code TimerQueue}.
+	 */
+	TimerQueue() {
+		this.incoming = new ConcurrentLinkedQueue<ScheduledTask>();
+		this.heap = new ScheduledTask[TimerQueue.INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Adds an action to the queue. This may be called from any thread.
+	 *
+	 * @param task the action to add.
+	 */
+	void add(ScheduledTask task) {
+		this.incoming.offer(task);
+	}
+
+	/**
+	 * Runs every action that is due at the given time. This must only be called by the
+	 * scheduler thread.
+	 *
+	 * @param now the current time, as given by {@code System.nanoTime()}.
+	 */
+	void runDue(long now) {
+		ScheduledTask task;
+		while ((task = this.incoming.poll()) != null) {
+			this.push(task);
+		}
+		while (this.size > 0 && now - this.heap[0].getDueTime() >= 0) {
+			task = this.pop();
+			if (task.run(now)) {
+				this.push(task);
+			}
+		}
+	}
+
+	/**
+	 * Cancels every action in the queue and removes it without running it, so that the
+	 * queue no longer holds on to the actions. This must only be called by the scheduler
+	 * thread.
+	 */
+	void clear() {
+		ScheduledTask task;
+		while ((task = this.incoming.poll()) != null) {
+			task.cancel();
+		}
+		for (int i = 0; i < this.size; i++) {
+			this.heap[i].cancel();
+			this.heap[i] = null;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * Adds an action to the heap.
+	 *
+	 * @param task the action to add.
+	 */
+	private void push(ScheduledTask task) {
+		if (this.size == this.heap.length) {
+			ScheduledTask[] grown = new ScheduledTask[this.heap.length * 2];
+			System.arraycopy(this.heap, 0, grown, 0, this.size);
+			this.heap = grown;
+		}
+		int i = this.size++;
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (task.getDueTime() - this.heap[parent].getDueTime() >= 0) {
+				break;
+			}
+			this.heap[i] = this.heap[parent];
+			i = parent;
+		}
+		this.heap[i] = task;
+	}
+
+	/**
+	 * Removes and returns the action that is due soonest.
+	 *
+	 * @return the action at the top of the heap.
+	 */
+	private ScheduledTask pop() {
+		ScheduledTask top = this.heap[0];
+		ScheduledTask last = this.heap[--this.size];
+		this.heap[this.size] = null;
+		if (this.size > 0) {
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= this.size) {
+					break;
+				}
+				if (child + 1 < this.size
+						&& this.heap[child + 1].getDueTime() - this.heap[child].getDueTime() < 0) {
+					child++;
+				}
+				if (this.heap[child].getDueTime() - last.getDueTime() >= 0) {
+					break;
+				}
+				this.heap[i] = this.heap[child];
+				i = child;
+			}
+			this.heap[i] = last;
+		}
+		return top;
+	}
+
+}
@@ -0,0 +1,117 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.scheduler;
+
+/**
+ * A {@code Timetable} is an immutable arrangement of the tasks registered with a
+ * {@code TaskScheduler}, in the order that they run in each cycle.
+ * <p>
+ * The entries are grouped into dependency levels. Every entry in a level may only depend
+ * on entries in earlier levels, so all the entries in one level can run at the same time
+ * once the previous level has finished. Within a level, every
+ * {@link TaskAffinity#HARDWARE} entry comes before every {@link TaskAffinity#PARALLEL}
+ * entry, and each of those two groups is sorted in rate-monotonic order, with entries of
+ * the same rate kept in registration order.
+ *
+ * @author Zach Ohara
+ */
+final class Timetable {
+
+	/**
+	 * A timetable with no tasks.
+	 */
+	static final Timetable EMPTY = new Timetable(new TaskEntry[0], new int[0], new int[0]);
+
+	/**
+	 * The entries of the timetable, in the order that they run in.
+	 */
+	private final TaskEntry[] entries;
+
+	/**
+	 * The index of the first parallel entry of each dependency level. If a level has no
+	 * parallel entries, this is the end of the level.
+	 */
+	private final int[] parallelStarts;
+
+	/**
+	 * The index one past the last entry of each dependency level.
+	 */
+	private final int[] levelEnds;
+
+	/**
+	 * Determines if any entry in the timetable can run on a worker thread.
+	 */
+	private final boolean hasParallelTasks;
+
+	/**
+	 * Constructs a new {@code Timetable}.
+	 *
+	 * @param entries the entries of the timetable, in the order that they run in.
+	 * @param parallelStarts the index of the first parallel entry of each level.
+	 * @param levelEnds the index one past the last entry of each dependency level.
+	 */
+	Timetable(TaskEntry[] entries, int[] parallelStarts, int[] levelEnds) {
+		this.entries = entries;
+		this.parallelStarts = parallelStarts;
+		this.levelEnds = levelEnds;
+		boolean parallel = false;
+		for (TaskEntry e : entries) {
+			parallel |= e.getAffinity() == TaskAffinity.PARALLEL;
+		}
+		this.hasParallelTasks = parallel;
+	}
+
+	/**
+	 * Gets the entries of the timetable, in the order that they run in. The returned array
+	 * must not be modified.
+	 *
+	 * @return the entries of the timetable.
+	 */
+	TaskEntry[] getEntries() {
+		return this.entries;
+	}
+
+	/**
+	 * Gets the index of the first parallel entry of each dependency level. The returned
+	 * array must not be modified.
+	 *
+	 * @return the start index of the parallel entries of each level.
+	 */
+	int[] getParallelStarts() {
+		return this.parallelStarts;
+	}
+
+	/**
+	 * Gets the index one past the last entry of each dependency level. The returned array
+	 * must not be modified.
+	 *
+	 * @return the end index of each level.
+	 */
+	int[] getLevelEnds() {
+		return this.levelEnds;
+	}
+
+	/**
+	 * Determines if any entry in the timetable can run on a worker thread.
+	 *
+	 * @return {@code true} if any entry has {@link TaskAffinity#PARALLEL} affinity.
+	 */
+	boolean hasParallelTasks() {
+		return this.hasParallelTasks;
+	}
+
+}
@@ -0,0 +1,100 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.sensor;
+
+import io.github.thunderbots.lightning.Lightning;
+
+import com.qualcomm.robotcore.hardware.GyroSensor;
+
+/**
+ * A {@code GyroHeadingSource} is a {@code HeadingSource} that reads the heading of the
+ * robot from a gyro sensor. The heading is measured relative to the direction that the
+ * robot faced when the source was last {@link #reset()}.
+ *
+ * @author Zach Ohara
+ */
+public class GyroHeadingSource implements HeadingSource {
+
+	/**
+	 * The number of degrees in a full turn.
+	 */
+	private static final double FULL_TURN = 360;
+
+	/**
+	 * The gyro sensor that the heading is read from.
+	 */
+	private final GyroSensor gyro;
+
+	/**
+	 * Whether the heading of the gyro increases as the robot turns counter-clockwise, so
+	 * it must be negated.
+	 */
+	private final boolean inverted;
+
+	/**
+	 * The heading reported by the gyro when the source was last reset.
+	 */
+	private int offset;
+
+	/**
+	 * Constructs a new {@code GyroHeadingSource} from the gyro sensor with the given name.
+	 *
+	 * @param name the name of the gyro sensor.
+	 * @throws IllegalArgumentException if there is no sensor with the given name.
+	 */
+	public GyroHeadingSource(String name) {
+		this(Lightning.<GyroSensor> getSensor(name), false);
+	}
+
+	/**
+	 * Constructs a new {@code GyroHeadingSource} from the given gyro sensor.
+	 *
+	 * @param gyro the gyro sensor that the heading is read from.
+	 * @param inverted {@code true} if the heading of the gyro increases as the robot
+	 * turns counter-clockwise.
+	 */
+	public GyroHeadingSource(GyroSensor gyro, boolean inverted) {
+		this.gyro = gyro;
+		this.inverted = inverted;
+		this.reset();
+	}
+
+	/**
+	 * Makes the direction that the robot is currently facing the new zero heading.
+	 */
+	public void reset() {
+		this.offset = this.gyro.getHeading();
+	}
+
+	/**
+	 * Gets the current heading of the robot, between 0 and 360 degrees.
+	 *
+	 * @return the heading of the robot, in degrees clockwise.
+	 */
+	@Override
+	public double getHeading() {
+		double heading = this.gyro.getHeading() - this.offset;
+		if (this.inverted) {
+			heading = -heading;
+		}
+		if (heading < 0) {
+			heading += GyroHeadingSource.FULL_TURN;
+		}
+		return heading;
+	}
+
+}
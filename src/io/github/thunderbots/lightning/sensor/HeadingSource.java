@@ -0,0 +1,39 @@
+/* Copyright (C) 2015-2016 Thunderbots Robotics
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.thunderbots.lightning.sensor;
+
+/**
+ * A {@code HeadingSource} is anything that can report the heading of the robot on the
+ * field, such as a gyro sensor or encoder odometry.
+ * <p>
+ * Headings are measured in degrees, and increase as the robot turns clockwise, to match
+ * the clockwise vector of {@link io.github.thunderbots.lightning.drive.DriveSystem
+ * DriveSystem}. A heading of zero means that the robot faces the direction that is
+ * 'forward' on the field.
+ *
+ * @author Zach Ohara
+ */
+public interface HeadingSource {
+
+	/**
+	 * Gets the current heading of the robot.
+	 *
+	 * @return the heading of the robot, in degrees clockwise.
+	 */
+	public double getHeading();
+
+}
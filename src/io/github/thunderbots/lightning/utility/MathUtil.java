@@ -46,18 +46,36 @@ public final class MathUtil {
 	 * @return the number, scaled to the same relative position within the output range
 	 */
 	public static double scaleToRange(double num, double[] inputRange, double[] outputRange) {
+		return MathUtil.scaleToRange(num, inputRange[0], inputRange[1], outputRange[0],
+				outputRange[1]);
+	}
+
+	/**
+	 * Scales a number within some range to a corresponding position relative to another
+	 * range. This is the same as {@link #scaleToRange(double, double[], double[])}, but
+	 * takes the bounds of the ranges directly, so no arrays have to be allocated.
+	 *
+	 * @param num the number to be scaled
+	 * @param inputMin the lowest value of the range to be scaled from
+	 * @param inputMax the highest value of the range to be scaled from
+	 * @param outputMin the lowest value of the range to be scaled to
+	 * @param outputMax the highest value of the range to be scaled to
+	 * @return the number, scaled to the same relative position within the output range
+	 */
+	public static double scaleToRange(double num, double inputMin, double inputMax,
+			double outputMin, double outputMax) {
 		double signum = Math.signum(num);
 		num = Math.abs(num);
-		if (num < inputRange[0]) {
+		if (num < inputMin) {
 			return 0;
 		}
-		if (num > inputRange[1]) {
-			return outputRange[1] * signum;
+		if (num > inputMax) {
+			return outputMax * signum;
 		}
-		double inputDifference = inputRange[1] - inputRange[0];
-		double outputDifference = outputRange[1] - outputRange[0];
-		double posInRange = (num - inputRange[0]) / inputDifference;
-		double posOutRange = outputRange[0] + (posInRange * outputDifference);
+		double inputDifference = inputMax - inputMin;
+		double outputDifference = outputMax - outputMin;
+		double posInRange = (num - inputMin) / inputDifference;
+		double posOutRange = outputMin + (posInRange * outputDifference);
 		return posOutRange * signum;
 	}
 
@@ -83,4 +101,21 @@ public final class MathUtil {
 		}
 	}
 
+	/**
+	 * Calculates the greatest common divisor of two non-negative integers, using the
+	 * Euclidean algorithm.
+	 *
+	 * @param a the first integer.
+	 * @param b the second integer.
+	 * @return the largest integer that divides both {@code a} and {@code b}.
+	 */
+	public static int greatestCommonDivisor(int a, int b) {
+		while (b != 0) {
+			int remainder = a % b;
+			a = b;
+			b = remainder;
+		}
+		return a;
+	}
+
 }
@@ -18,6 +18,8 @@ package io.github.thunderbots.lightning.utility;
 
 import io.github.thunderbots.lightning.hardware.Motor;
 import io.github.thunderbots.lightning.hardware.Servo;
+import io.github.thunderbots.lightning.scheduler.TaskScheduler;
+import io.github.thunderbots.lightning.scheduler.TaskStatistics;
 
 /**
  * The {@code Telemetry} class acts as a gateway to all telemetric exchange between the
@@ -145,6 +147,23 @@ public final class Telemetry {
 	public static void sendServoPosition(Servo s) {
 		Telemetry.sendData(s.getName() + " pos", s.getPosition());
 	}
+
+	/**
+	 * Sends the execution time statistics of every task in the given scheduler from the
+	 * robot controller to the driver station. The name of each task is used as the tag for
+	 * its data, and a summary of the statistics is sent as the data. The cycle and overrun
+	 * counts of the scheduler itself are sent under the tag {@code "scheduler"}.
+	 *
+	 * @param scheduler the scheduler to send the statistics of.
+	 * @see io.github.thunderbots.lightning.scheduler.TaskScheduler#getTaskStatistics()
+	 */
+	public static void sendTaskStatistics(TaskScheduler scheduler) {
+		Telemetry.sendData("scheduler", "cycles=" + scheduler.getCycleCount() + " over="
+				+ scheduler.getOverrunCount());
+		for (TaskStatistics stats : scheduler.getTaskStatistics()) {
+			Telemetry.sendData(stats.getName(), stats);
+		}
+	}
 	
 	public static void sendThrowable(Throwable t) {
 		Telemetry.sendData("Throwable: ", t.getMessage());